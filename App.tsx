@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useCallback } from 'react';
+import React, { useState, useEffect, useCallback, useRef } from 'react';
 import { Entry, AppTab } from './types';
 import { DBService } from './services/dbService';
 import ScannerInput from './components/ScannerInput';
@@ -8,12 +8,38 @@ import ManualCheckout from './components/ManualCheckout';
 import DataManagement from './components/DataManagement';
 import UnknownEntries from './components/UnknownEntries';
 
+// --- LOGIC: LOCAL DATE & TIME ---
+const getTodayLocal = () => {
+  const now = new Date();
+  const year = now.getFullYear();
+  const month = String(now.getMonth() + 1).padStart(2, '0');
+  const day = String(now.getDate()).padStart(2, '0');
+  return `${year}-${month}-${day}`;
+};
+
+const LIVE_LIMIT = 50;
+
+const activityTime = (e: Entry) => e.checkOutTime || e.checkInTime || '';
+
+// Changed rows replace their earlier version, so a check-out moves the visit to the top as "Out"
+const mergeActivity = (current: Entry[], changed: Entry[], today: string) => {
+  const byId = new Map(current.map(e => [e.id, e]));
+  changed.forEach(e => byId.set(e.id, e));
+  return [...byId.values()]
+    .filter(e => activityTime(e).startsWith(today))
+    .sort((a, b) => activityTime(b).localeCompare(activityTime(a)))
+    .slice(0, LIVE_LIMIT);
+};
+
 const App: React.FC = () => {
   const [activeTab, setActiveTab] = useState<AppTab>(AppTab.DASHBOARD);
-  const [entries, setEntries] = useState<Entry[]>([]);
+  const [recentEntries, setRecentEntries] = useState<Entry[]>([]);
+  const [scansToday, setScansToday] = useState(0);
+  const [occupancy, setOccupancy] = useState(0);
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [currentTime, setCurrentTime] = useState(new Date());
+  const changeCursor = useRef<number | null>(null);
 
   // Clock for Sidebar
   useEffect(() => {
@@ -21,10 +47,37 @@ const App: React.FC = () => {
     return () => clearInterval(timer);
   }, []);
 
+  // Dashboard only needs today's latest scans and counts; the other tabs load their own data.
+  // The activity list starts from today's newest check-ins and then follows the change feed,
+  // which also carries check-outs and resolved unknowns.
   const handleRefresh = useCallback(async () => {
+    const today = getTodayLocal();
     try {
-      const data = await DBService.getEntries();
-      setEntries(data);
+      if (changeCursor.current === null) {
+        // Cursor first: anything that changes while the page loads comes in on the next refresh
+        const start = await DBService.getEntryChanges();
+        const page = await DBService.getEntryPage({ from: today, to: today, limit: LIVE_LIMIT });
+        changeCursor.current = start.cursor;
+        setRecentEntries(mergeActivity([], page.entries, today));
+      } else {
+        const changed: Entry[] = [];
+        let since = changeCursor.current;
+        let more = true;
+        while (more) {
+          const batch = await DBService.getEntryChanges(since);
+          changed.push(...batch.entries);
+          since = batch.cursor;
+          more = batch.hasMore;
+        }
+        changeCursor.current = since;
+        setRecentEntries(prev => mergeActivity(prev, changed, today));
+      }
+      const [stats, occ] = await Promise.all([
+        DBService.getStats(today, today),
+        DBService.getOccupancy(),
+      ]);
+      setScansToday(stats.totalVisits);
+      setOccupancy(occ.total);
       setError(null);
     } catch (err: any) {
       console.error("Database connection failed", err);
@@ -38,14 +91,6 @@ const App: React.FC = () => {
     handleRefresh();
   }, [handleRefresh]);
 
-  // --- LOGIC: LOCAL DATE & TIME ---
-  const getTodayLocal = () => {
-    const now = new Date();
-    const year = now.getFullYear();
-    const month = String(now.getMonth() + 1).padStart(2, '0');
-    const day = String(now.getDate()).padStart(2, '0');
-    return `${year}-${month}-${day}`;
-  };
   const today = getTodayLocal();
 
   const formatTime = (iso: string | undefined) => {
@@ -54,15 +99,9 @@ const App: React.FC = () => {
   };
 
   // --- LOGIC: LIVE DASHBOARD ---
-  const liveEntries = entries
-    .filter(e => e.checkInTime && e.checkInTime.startsWith(today))
-    .sort((a, b) => {
-      const getTime = (entry: Entry) => entry.checkOutTime || entry.checkInTime || '';
-      return getTime(b).localeCompare(getTime(a));
-    })
-    .slice(0, 50);
+  const liveEntries = recentEntries;
 
-  const activeCount = entries.filter(e => !e.checkOutTime).length;
+  const activeCount = occupancy;
 
   if (error) {
     return (
@@ -226,7 +265,7 @@ const App: React.FC = () => {
                           </div>
                           <h4 className="text-slate-500 font-bold text-xs uppercase tracking-widest mb-1">Total Scans Today</h4>
                           <div className="flex items-end gap-2">
-                            <span className="text-4xl font-black text-slate-800">{liveEntries.length}</span>
+                            <span className="text-4xl font-black text-slate-800">{scansToday}</span>
                             <span className="text-xs font-bold text-slate-400 mb-1.5">entries</span>
                           </div>
                         </div>
@@ -302,11 +341,11 @@ const App: React.FC = () => {
               {activeTab !== AppTab.DASHBOARD && (
                 <div className="h-full overflow-y-auto p-6 md:p-8 scroll-smooth">
                   <div className="max-w-6xl mx-auto">
-                    {activeTab === AppTab.NOT_CHECKED_OUT && <ManualCheckout entries={entries} onRefresh={handleRefresh} />}
-                    {activeTab === AppTab.STATISTICS && <StatsOverview entries={entries} />}
-                    {activeTab === AppTab.REPORTS && <Reports entries={entries} />}
+                    {activeTab === AppTab.NOT_CHECKED_OUT && <ManualCheckout onRefresh={handleRefresh} />}
+                    {activeTab === AppTab.STATISTICS && <StatsOverview />}
+                    {activeTab === AppTab.REPORTS && <Reports />}
                     {activeTab === AppTab.DATA_MANAGEMENT && <DataManagement />}
-                    {activeTab === AppTab.UNKNOWN_ENTRIES && <UnknownEntries entries={entries} onRefresh={handleRefresh} />}
+                    {activeTab === AppTab.UNKNOWN_ENTRIES && <UnknownEntries onRefresh={handleRefresh} />}
                   </div>
                 </div>
               )}
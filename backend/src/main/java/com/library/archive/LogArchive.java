@@ -0,0 +1,261 @@
+package com.library.archive;
+
+import com.library.dto.LogEntryFilter;
+import com.library.entity.LogEntry;
+import com.library.repository.LogEntryQueries.Cursor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Compressed, read-only store for log entries moved out of MySQL by the archive job.
+ * One or more {@link LogSegment} files per check-in month live under
+ * {@code library.archive.dir}; queries apply the same filters as
+ * {@link com.library.repository.LogEntryQueries} and only inflate blocks whose
+ * time range overlaps the request.
+ */
+@Component
+public class LogArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(LogArchive.class);
+
+    /** Same order as the SQL listings: check_in_time DESC, id DESC (ids compared as unsigned bytes). */
+    public static final Comparator<LogEntry> NEWEST_FIRST = Comparator
+            .comparing(LogEntry::getCheckInTime)
+            .thenComparing(LogEntry::getId, (a, b) -> {
+                int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+                return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+            })
+            .reversed();
+
+    private final Path dir;
+    private volatile List<LogSegment> segments = List.of();   // ordered by first check-in
+
+    public LogArchive(@Value("${library.archive.dir:./archive}") String dir) {
+        this.dir = Path.of(dir);
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!Files.isDirectory(dir)) return;
+        List<LogSegment> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "log-*")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(f);    // interrupted write; the rows are still in MySQL
+                } else if (name.endsWith(".seg")) {
+                    found.add(LogSegment.open(f));
+                }
+            }
+        }
+        found.sort(Comparator.comparing(LogSegment::firstCheckIn));
+        segments = List.copyOf(found);
+        if (!found.isEmpty()) log.info("Log archive: {} segments, {} rows", found.size(), rows());
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public long rows() {
+        return segments.stream().mapToLong(LogSegment::rows).sum();
+    }
+
+    /** First day with no archived rows; days before it must not be rebuilt from log_entry alone. Null if empty. */
+    public LocalDate horizon() {
+        return segments.stream().map(LogSegment::lastCheckIn).max(Comparator.naturalOrder())
+                .map(t -> t.toLocalDate().plusDays(1)).orElse(null);
+    }
+
+    /** Rows for a new segment, oldest first. */
+    @FunctionalInterface
+    public interface SegmentSource {
+        void writeTo(LogSegment.Writer writer) throws IOException;
+    }
+
+    /** Streams a new segment for {@code month} from {@code source}; returns null (and writes nothing) if it added no rows. */
+    public synchronized LogSegment append(YearMonth month, SegmentSource source) throws IOException {
+        Files.createDirectories(dir);
+        Path target;
+        int n = 0;
+        do {
+            target = dir.resolve(String.format("log-%s-%03d.seg", month, n++));
+        } while (Files.exists(target));
+        LogSegment segment;
+        try (LogSegment.Writer writer = LogSegment.create(target)) {
+            source.writeTo(writer);
+            if (writer.rows() == 0) return null;
+            segment = writer.finish();
+        }
+
+        List<LogSegment> next = new ArrayList<>(segments);
+        next.add(segment);
+        next.sort(Comparator.comparing(LogSegment::firstCheckIn));
+        segments = List.copyOf(next);
+        return segment;
+    }
+
+    /** Ids already archived with from &lt;= check-in &lt; toExclusive, so a re-run never archives a row twice. */
+    public Set<UUID> ids(LocalDateTime from, LocalDateTime toExclusive) {
+        Set<UUID> ids = new HashSet<>();
+        for (LogSegment s : segments) {
+            if (overlaps(s, from, toExclusive)) scan(s, from, toExclusive, e -> ids.add(e.getId()));
+        }
+        return ids;
+    }
+
+    /** Up to {@code max} matching entries strictly after {@code after} (null = from the newest), newest first. */
+    public List<LogEntry> newest(LogEntryFilter filter, Cursor after, int max) {
+        List<LogEntry> out = new ArrayList<>(max);
+        forEachNewestFirst(filter, after, e -> {
+            if (out.size() < max) out.add(e);
+        }, () -> out.size() >= max);
+        return out;
+    }
+
+    public long count(LogEntryFilter filter) {
+        if (Boolean.TRUE.equals(filter.getOpen())) return 0;     // only closed sessions are archived
+        LocalDateTime lo = lower(filter);
+        LocalDateTime hi = upper(filter, null);
+        boolean rowFilter = notBlank(filter.getRegNo()) || notBlank(filter.getDepartment())
+                || notBlank(filter.getUserType()) || notBlank(filter.getSearch()) || filter.getUnknown() != null;
+        long n = 0;
+        for (LogSegment s : segments) {
+            if (!overlaps(s, lo, hi)) continue;
+            if (rowFilter) {
+                long[] hits = {0};
+                scan(s, lo, hi, e -> {
+                    if (matches(filter, e)) hits[0]++;
+                });
+                n += hits[0];
+            } else {
+                // A date range alone is answered from the block index
+                n += count(s, lo, hi);
+            }
+        }
+        return n;
+    }
+
+    /** Streams every matching archived entry, newest first, inflating blocks only as they are reached. */
+    public void forEachNewestFirst(LogEntryFilter filter, Consumer<LogEntry> action) {
+        forEachNewestFirst(filter, null, action, () -> false);
+    }
+
+    private record Head(LogEntry entry, Iterator<LogEntry> rest) {}
+
+    private void forEachNewestFirst(LogEntryFilter filter, Cursor after, Consumer<LogEntry> action,
+                                    java.util.function.BooleanSupplier done) {
+        if (Boolean.TRUE.equals(filter.getOpen())) return;     // only closed sessions are archived
+        LocalDateTime lo = lower(filter);
+        LocalDateTime hi = upper(filter, after);
+        List<List<LogSegment>> groups = overlapping(segments);
+        for (int i = groups.size() - 1; i >= 0 && !done.getAsBoolean(); i--) {
+            // Segments in a group share a time range (e.g. a month archived in two runs), so their
+            // newest-first streams are merged; each starts at the block holding the cursor
+            PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::entry, NEWEST_FIRST));
+            for (LogSegment s : groups.get(i)) {
+                if (!overlaps(s, lo, hi)) continue;
+                Iterator<LogEntry> it = s.newestFirst(lo, hi);
+                if (it.hasNext()) heads.add(new Head(it.next(), it));
+            }
+            while (!heads.isEmpty() && !done.getAsBoolean()) {
+                Head h = heads.poll();
+                LogEntry e = h.entry();
+                if (matches(filter, e) && (after == null || isAfter(e, after))) action.accept(e);
+                if (!done.getAsBoolean() && h.rest().hasNext()) heads.add(new Head(h.rest().next(), h.rest()));
+            }
+        }
+    }
+
+    /** Splits segments (ordered by first check-in) into runs whose time ranges touch; runs are disjoint and ordered. */
+    static List<List<LogSegment>> overlapping(List<LogSegment> sorted) {
+        List<List<LogSegment>> groups = new ArrayList<>();
+        List<LogSegment> group = null;
+        LocalDateTime groupEnd = null;
+        for (LogSegment s : sorted) {
+            if (group == null || s.firstCheckIn().isAfter(groupEnd)) {
+                group = new ArrayList<>();
+                groups.add(group);
+                groupEnd = s.lastCheckIn();
+            } else if (s.lastCheckIn().isAfter(groupEnd)) {
+                groupEnd = s.lastCheckIn();
+            }
+            group.add(s);
+        }
+        return groups;
+    }
+
+    private static boolean isAfter(LogEntry e, Cursor c) {
+        LogEntry at = new LogEntry();
+        at.setCheckInTime(c.checkInTime());
+        at.setId(c.id());
+        return NEWEST_FIRST.compare(e, at) > 0;
+    }
+
+    // Mirrors LogEntryQueries.conditions(); MySQL's default collation is case-insensitive
+    static boolean matches(LogEntryFilter f, LogEntry e) {
+        if (notBlank(f.getRegNo()) && !f.getRegNo().equalsIgnoreCase(e.getRegNo())) return false;
+        if (notBlank(f.getDepartment()) && !f.getDepartment().equalsIgnoreCase(e.getDepartment())) return false;
+        if (notBlank(f.getUserType()) && !f.getUserType().equalsIgnoreCase(e.getUserType())) return false;
+        if (f.getUnknown() != null
+                && f.getUnknown() != ("UNKNOWN".equals(e.getUserType()) || e.getName() == null)) return false;
+        if (Boolean.TRUE.equals(f.getOpen()) && e.getCheckOutTime() != null) return false;
+        if (Boolean.FALSE.equals(f.getOpen()) && e.getCheckOutTime() == null) return false;
+        if (notBlank(f.getSearch())) {
+            String q = f.getSearch().trim().toLowerCase(Locale.ROOT);
+            boolean hit = (e.getRegNo() != null && e.getRegNo().toLowerCase(Locale.ROOT).startsWith(q))
+                    || (e.getName() != null && e.getName().toLowerCase(Locale.ROOT).startsWith(q));
+            if (!hit) return false;
+        }
+        return true;
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+
+    private static LocalDateTime lower(LogEntryFilter f) {
+        return f.getFrom() != null ? f.getFrom().atStartOfDay() : null;
+    }
+
+    private static LocalDateTime upper(LogEntryFilter f, Cursor after) {
+        LocalDateTime to = f.getTo() != null ? f.getTo().plusDays(1).atStartOfDay() : null;
+        if (after == null) return to;
+        LocalDateTime cursorEnd = after.checkInTime().plusNanos(1000);    // rows at the cursor time may still follow it
+        return to == null || cursorEnd.isBefore(to) ? cursorEnd : to;
+    }
+
+    private static boolean overlaps(LogSegment s, LocalDateTime lo, LocalDateTime hi) {
+        return (lo == null || !s.lastCheckIn().isBefore(lo)) && (hi == null || s.firstCheckIn().isBefore(hi));
+    }
+
+    private static long count(LogSegment s, LocalDateTime lo, LocalDateTime hi) {
+        try {
+            return s.count(lo, hi);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read archive segment " + s.path(), ex);
+        }
+    }
+
+    private static void scan(LogSegment s, LocalDateTime lo, LocalDateTime hi, Consumer<LogEntry> action) {
+        try {
+            s.scan(lo, hi, action);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read archive segment " + s.path(), ex);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.library.archive;
+
+import com.library.entity.LogEntry;
+import com.library.entity.UuidV7;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive file of closed log entries, sorted by check-in time.
+ *
+ * Layout: "LGSEG1", then deflate-compressed blocks of up to BLOCK_ROWS rows, then a
+ * sparse index (per block: first/last check-in, offset, length, rows), then the
+ * index offset and "LGSEG1" again. Only blocks overlapping a queried time range are
+ * read and inflated.
+ */
+public final class LogSegment {
+
+    static final int BLOCK_ROWS = 1024;
+    private static final byte[] MAGIC = "LGSEG1".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    record Block(long firstMicros, long lastMicros, long offset, int length, int rawLength, int rows) {}
+
+    private final Path path;
+    private final List<Block> blocks;
+
+    private LogSegment(Path path, List<Block> blocks) {
+        this.path = path;
+        this.blocks = blocks;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public LocalDateTime firstCheckIn() {
+        return fromMicros(blocks.get(0).firstMicros());
+    }
+
+    public LocalDateTime lastCheckIn() {
+        return fromMicros(blocks.get(blocks.size() - 1).lastMicros());
+    }
+
+    public long rows() {
+        return blocks.stream().mapToLong(Block::rows).sum();
+    }
+
+    /** Starts a segment at {@code target}; rows are compressed a block at a time as they are added. */
+    public static Writer create(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    /**
+     * Streams rows (sorted by check-in) into a temporary file next to the target. {@link #finish()}
+     * writes the index and renames it into place; closing an unfinished writer deletes it.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path tmp;
+        private final FileChannel ch;
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final byte[] buf = new byte[64 * 1024];
+        private final List<Block> blocks = new ArrayList<>();
+        private final List<LogEntry> pending = new ArrayList<>(BLOCK_ROWS);
+        private long offset = MAGIC.length;
+        private long rows;
+        private boolean finished;
+
+        private Writer(Path target) throws IOException {
+            this.target = target;
+            this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.out = Channels.newOutputStream(ch);
+            out.write(MAGIC);
+        }
+
+        public void add(LogEntry e) throws IOException {
+            pending.add(e);
+            rows++;
+            if (pending.size() == BLOCK_ROWS) writeBlock();
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        public LogSegment finish() throws IOException {
+            if (rows == 0) throw new IllegalArgumentException("Empty segment");
+            if (!pending.isEmpty()) writeBlock();
+            DataOutputStream idx = new DataOutputStream(out);
+            idx.writeInt(blocks.size());
+            for (Block b : blocks) {
+                idx.writeLong(b.firstMicros());
+                idx.writeLong(b.lastMicros());
+                idx.writeLong(b.offset());
+                idx.writeInt(b.length());
+                idx.writeInt(b.rawLength());
+                idx.writeInt(b.rows());
+            }
+            idx.writeLong(offset);
+            idx.write(MAGIC);
+            idx.flush();
+            ch.force(true);
+            ch.close();
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+            return new LogSegment(target, List.copyOf(blocks));
+        }
+
+        private void writeBlock() throws IOException {
+            byte[] raw = encode(pending);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream packed = new ByteArrayOutputStream(raw.length / 4);
+            while (!deflater.finished()) packed.write(buf, 0, deflater.deflate(buf));
+            packed.writeTo(out);
+            blocks.add(new Block(micros(pending.get(0).getCheckInTime()), micros(pending.get(pending.size() - 1).getCheckInTime()),
+                    offset, packed.size(), raw.length, pending.size()));
+            offset += packed.size();
+            pending.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (finished) return;
+            ch.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static LogSegment open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer tail = ByteBuffer.allocate(8 + MAGIC.length);
+            if (size < MAGIC.length + tail.capacity()) throw new IOException("Not a log segment: " + path);
+            readFully(ch, tail, size - tail.capacity(), path);
+            tail.flip();
+            long indexOffset = tail.getLong();
+            byte[] magic = new byte[MAGIC.length];
+            tail.get(magic);
+            if (!java.util.Arrays.equals(magic, MAGIC)) throw new IOException("Not a log segment: " + path);
+
+            ByteBuffer index = ByteBuffer.allocate((int) (size - tail.capacity() - indexOffset));
+            readFully(ch, index, indexOffset, path);
+            index.flip();
+            int count = index.getInt();
+            List<Block> blocks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                blocks.add(new Block(index.getLong(), index.getLong(), index.getLong(), index.getInt(), index.getInt(), index.getInt()));
+            }
+            return new LogSegment(path, blocks);
+        }
+    }
+
+    /** Entries with from &lt;= checkIn &lt; toExclusive; blocks wholly inside the range are counted from the index. */
+    public long count(LocalDateTime from, LocalDateTime toExclusive) throws IOException {
+        long lo = from == null ? Long.MIN_VALUE : micros(from);
+        long hi = toExclusive == null ? Long.MAX_VALUE : micros(toExclusive);
+        long n = 0;
+        boolean partial = false;
+        for (Block b : blocks) {
+            if (b.lastMicros() < lo || b.firstMicros() >= hi) continue;
+            if (b.firstMicros() >= lo && b.lastMicros() < hi) n += b.rows();
+            else partial = true;
+        }
+        if (!partial) return n;
+        // Only the (at most two) blocks straddling a range edge need inflating
+        long[] edge = {0};
+        scan(from, toExclusive, e -> edge[0]++, b -> b.firstMicros() < lo || b.lastMicros() >= hi);
+        return n + edge[0];
+    }
+
+    /** Calls {@code action} for every entry with from &lt;= checkIn &lt; toExclusive (nulls = unbounded), oldest first. */
+    public void scan(LocalDateTime from, LocalDateTime toExclusive, Consumer<LogEntry> action) throws IOException {
+        scan(from, toExclusive, action, b -> true);
+    }
+
+    private void scan(LocalDateTime from, LocalDateTime toExclusive, Consumer<LogEntry> action,
+                      Predicate<Block> include) throws IOException {
+        long lo = from == null ? Long.MIN_VALUE : micros(from);
+        long hi = toExclusive == null ? Long.MAX_VALUE : micros(toExclusive);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            Inflater inflater = new Inflater();
+            try {
+                for (Block b : blocks) {
+                    if (b.lastMicros() < lo || b.firstMicros() >= hi || !include.test(b)) continue;
+                    for (LogEntry e : read(ch, inflater, b)) {
+                        long t = micros(e.getCheckInTime());
+                        if (t >= lo && t < hi) action.accept(e);
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Entries with from &lt;= checkIn &lt; toExclusive, newest first. The block index locates
+     * the newest block below {@code toExclusive} and blocks are inflated one at a time as
+     * the iterator is consumed, so reading a page costs a block or two, not the segment.
+     * Read errors surface as {@link UncheckedIOException}.
+     */
+    public Iterator<LogEntry> newestFirst(LocalDateTime from, LocalDateTime toExclusive) {
+        long lo = from == null ? Long.MIN_VALUE : micros(from);
+        long hi = toExclusive == null ? Long.MAX_VALUE : micros(toExclusive);
+        return new Iterator<>() {
+            private int block = blocks.size();      // index of the block in `rows`
+            private List<LogEntry> rows = List.of();
+            private int row = -1;                   // next row of `rows`, walking backwards
+            private LogEntry next;
+            private boolean ended;
+
+            private LogEntry advance() {
+                while (true) {
+                    while (row >= 0) {
+                        LogEntry e = rows.get(row--);
+                        long t = micros(e.getCheckInTime());
+                        if (t < lo) return null;
+                        if (t < hi) return e;
+                    }
+                    do block--; while (block >= 0 && blocks.get(block).firstMicros() >= hi);
+                    if (block < 0 || blocks.get(block).lastMicros() < lo) return null;
+                    rows = read(blocks.get(block));
+                    row = rows.size() - 1;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !ended) {
+                    next = advance();
+                    ended = next == null;
+                }
+                return next != null;
+            }
+
+            @Override
+            public LogEntry next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                LogEntry e = next;
+                next = null;
+                return e;
+            }
+        };
+    }
+
+    private List<LogEntry> read(Block b) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            Inflater inflater = new Inflater();
+            try {
+                return read(ch, inflater, b);
+            } finally {
+                inflater.end();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read archive segment " + path, ex);
+        }
+    }
+
+    private List<LogEntry> read(FileChannel ch, Inflater inflater, Block b) throws IOException {
+        ByteBuffer packed = ByteBuffer.allocate(b.length());
+        readFully(ch, packed, b.offset(), path);
+        inflater.reset();
+        inflater.setInput(packed.array());
+        byte[] raw = new byte[b.rawLength()];
+        int n = 0;
+        try {
+            while (n < raw.length) {
+                int k = inflater.inflate(raw, n, raw.length - n);
+                // no progress with the whole block supplied: the block is truncated or shorter than its index entry
+                if (k == 0 && (inflater.needsInput() || inflater.finished() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated block at offset " + b.offset() + " in " + path);
+                }
+                n += k;
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt block in " + path, ex);
+        }
+        return decode(raw, b.rows());
+    }
+
+    // A positional read may return fewer bytes than asked for
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position, Path path) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, position);
+            if (n < 0) throw new IOException("Unexpected end of " + path + " at offset " + position);
+            position += n;
+        }
+    }
+
+    private static byte[] encode(List<LogEntry> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (LogEntry e : rows) {
+            out.write(UuidV7.toBytes(e.getId()));
+            writeNullable(out, e.getRegNo());
+            writeNullable(out, e.getName());
+            writeNullable(out, e.getDepartment());
+            writeNullable(out, e.getUserType());
+            out.writeLong(micros(e.getCheckInTime()));
+            out.writeLong(e.getCheckOutTime() == null ? Long.MIN_VALUE : micros(e.getCheckOutTime()));
+            out.writeLong(e.getChangeSeq() == null ? Long.MIN_VALUE : e.getChangeSeq());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static List<LogEntry> decode(byte[] raw, int rows) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        List<LogEntry> out = new ArrayList<>(rows);
+        byte[] id = new byte[16];
+        for (int i = 0; i < rows; i++) {
+            LogEntry e = new LogEntry();
+            in.readFully(id);
+            e.setId(UuidV7.fromBytes(id));
+            e.setRegNo(readNullable(in));
+            e.setName(readNullable(in));
+            e.setDepartment(readNullable(in));
+            e.setUserType(readNullable(in));
+            e.setCheckInTime(fromMicros(in.readLong()));
+            long outMicros = in.readLong();
+            e.setCheckOutTime(outMicros == Long.MIN_VALUE ? null : fromMicros(outMicros));
+            long seq = in.readLong();
+            e.setChangeSeq(seq == Long.MIN_VALUE ? null : seq);
+            out.add(e);
+        }
+        return out;
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // Local date-times are stored as if UTC; only ordering and round-tripping matter
+    static long micros(LocalDateTime t) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), t);
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+}
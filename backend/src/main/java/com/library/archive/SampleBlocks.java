@@ -0,0 +1,114 @@
+package com.library.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Append-only file of per-minute occupancy samples, written in small blocks.
+ *
+ * Each block is a length-prefixed run of samples encoded Gorilla-style for integers:
+ * the first sample in full, then the minute as a delta-of-delta (0 for the usual one
+ * minute step), occupancy as a delta and entries/exits as plain values, all zigzag
+ * varints. A steady hour costs a few bytes per sample. A block cut short by a crash
+ * is ignored on read.
+ */
+public final class SampleBlocks {
+
+    public record Sample(long minute, int occupancy, int entries, int exits) {}
+
+    private SampleBlocks() {}
+
+    /** Appends samples [0, n) as one block and forces it to disk. */
+    public static void append(Path file, long[] minutes, int[] occupancy, int[] entries, int[] exits, int n)
+            throws IOException {
+        if (n == 0) return;
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(16 + n * 4);
+        writeVar(buf, n);
+        writeVar(buf, zigzag(minutes[0]));
+        writeVar(buf, zigzag(occupancy[0]));
+        writeVar(buf, entries[0]);
+        writeVar(buf, exits[0]);
+        long prevDelta = 1;
+        for (int i = 1; i < n; i++) {
+            long delta = minutes[i] - minutes[i - 1];
+            writeVar(buf, zigzag(delta - prevDelta));
+            prevDelta = delta;
+            writeVar(buf, zigzag(occupancy[i] - occupancy[i - 1]));
+            writeVar(buf, entries[i]);
+            writeVar(buf, exits[i]);
+        }
+        ByteBuffer block = ByteBuffer.allocate(4 + buf.size());
+        block.putInt(buf.size()).put(buf.toByteArray()).flip();
+
+        Files.createDirectories(file.getParent());
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (block.hasRemaining()) ch.write(block);
+            ch.force(false);
+        }
+    }
+
+    public static void read(Path file, Consumer<Sample> action) throws IOException {
+        if (!Files.exists(file)) return;
+        ByteBuffer all = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (all.remaining() >= 4) {
+            int length = all.getInt();
+            if (length < 0 || length > all.remaining()) return;     // torn tail
+            ByteBuffer block = all.slice(all.position(), length);
+            all.position(all.position() + length);
+            try {
+                decode(block, action);
+            } catch (EOFException ex) {
+                return;
+            }
+        }
+    }
+
+    private static void decode(ByteBuffer in, Consumer<Sample> action) throws EOFException {
+        int n = (int) readVar(in);
+        long minute = unzigzag(readVar(in));
+        int occupancy = (int) unzigzag(readVar(in));
+        action.accept(new Sample(minute, occupancy, (int) readVar(in), (int) readVar(in)));
+        long delta = 1;
+        for (int i = 1; i < n; i++) {
+            delta += unzigzag(readVar(in));
+            minute += delta;
+            occupancy += (int) unzigzag(readVar(in));
+            action.accept(new Sample(minute, occupancy, (int) readVar(in), (int) readVar(in)));
+        }
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVar(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVar(ByteBuffer in) throws EOFException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!in.hasRemaining()) throw new EOFException();
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return v;
+        }
+        throw new EOFException();
+    }
+}
@@ -0,0 +1,18 @@
+package com.library.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Bad cursors, filters and uploads; the frontend shows `message`
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        String message = ex.getMessage() != null ? ex.getMessage() : "Bad request";
+        return ResponseEntity.badRequest().body(Map.of("message", message));
+    }
+}
@@ -1,10 +1,26 @@
 package com.library.controller;
 
+import com.library.dto.ImportResult;
+import com.library.dto.LogEntryFilter;
+import com.library.dto.LogEntryPage;
+import com.library.dto.ScanResult;
+import com.library.dto.UserProfile;
 import com.library.entity.*;
 import com.library.repository.*;
+import com.library.service.ChangeSequence;
+import com.library.service.GateEventBroadcaster;
+import com.library.service.GateService;
+import com.library.service.MasterDataCache;
+import com.library.service.MasterImportService;
+import com.library.service.VisitRollupService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.*;
 
 @RestController
@@ -12,14 +28,33 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class LibraryController {
 
+    private static final int BULK_DELETE_CHUNK = 1000;
+
     private final StudentRepository studentRepo;
     private final StaffRepository staffRepo;
     private final LogEntryRepository logRepo;
-
-    public LibraryController(StudentRepository s, StaffRepository st, LogEntryRepository l) {
+    private final GateService gate;
+    private final MasterDataCache profiles;
+    private final GateEventBroadcaster events;
+    private final ChangeSequence changes;
+    private final LogEntryQueries logQueries;
+    private final VisitRollupService rollups;
+    private final MasterImportService importer;
+
+    public LibraryController(StudentRepository s, StaffRepository st, LogEntryRepository l,
+                             GateService g, MasterDataCache p,
+                             GateEventBroadcaster e, ChangeSequence c, LogEntryQueries q,
+                             VisitRollupService r, MasterImportService i) {
         this.studentRepo = s;
         this.staffRepo = st;
         this.logRepo = l;
+        this.gate = g;
+        this.profiles = p;
+        this.events = e;
+        this.changes = c;
+        this.logQueries = q;
+        this.rollups = r;
+        this.importer = i;
     }
 
     // -------- MASTER DATA --------
@@ -36,43 +71,62 @@ public class LibraryController {
 
     @PostMapping("/students_data")
     public Student addStudent(@RequestBody Student s) {
-        return studentRepo.save(s);
+        Student saved = studentRepo.save(s);
+        profiles.evict(saved.getRegNo());
+        return saved;
     }
 
     @PostMapping("/staff_data")
     public Staff addStaff(@RequestBody Staff s) {
-        return staffRepo.save(s);
+        Staff saved = staffRepo.save(s);
+        profiles.evict(saved.getRegNo());
+        return saved;
     }
 
     @PostMapping("/students_data/{regNo}")
     public Student updateStudent(@PathVariable String regNo, @RequestBody Student s) {
-        return studentRepo.save(s);
+        Student saved = studentRepo.save(s);
+        profiles.evict(regNo);
+        profiles.evict(saved.getRegNo());
+        return saved;
     }
 
     @PostMapping("/staff_data/{regNo}")
     public Staff updateStaff(@PathVariable String regNo, @RequestBody Staff s) {
-        return staffRepo.save(s);
+        Staff saved = staffRepo.save(s);
+        profiles.evict(regNo);
+        profiles.evict(saved.getRegNo());
+        return saved;
+    }
+
+    // CSV body: regNo,name,department[,userType]; header row optional
+    @PostMapping(value = "/master/import", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ImportResult importMaster(InputStream body) throws IOException {
+        return importer.importCsv(body);
     }
 
     @GetMapping("/lookup/{regNo}")
-    public Object lookup(@PathVariable String regNo) {
-        return studentRepo.findById(regNo)
-                .map(s -> Map.of("regNo", s.getRegNo(), "name", s.getName(), "department", s.getDepartment(), "userType", "STUDENT"))
-                .orElse(
-                    staffRepo.findById(regNo)
-                        .map(s -> Map.of("regNo", s.getRegNo(), "name", s.getName(), "department", s.getDepartment(), "userType", "STAFF"))
-                        .orElse(null)
-                );
+    public UserProfile lookup(@PathVariable String regNo) {
+        return profiles.lookup(regNo).orElse(null);
     }
 
+    @GetMapping("/cache/lookup-stats")
+    public Map<String, Long> lookupCacheStats() {
+        return profiles.stats();
+    }
+
+    @jakarta.transaction.Transactional
     @PostMapping("/bulk-delete")
     public Map<String, Integer> bulkDelete(@RequestBody Map<String, List<String>> req) {
-        List<String> regNos = req.get("regNos");
-        regNos.forEach(r -> {
-            studentRepo.deleteById(r);
-            staffRepo.deleteById(r);
-        });
-        return Map.of("deletedCount", regNos.size());
+        List<String> regNos = new ArrayList<>(new LinkedHashSet<>(req.get("regNos")));
+        int students = 0, staff = 0;
+        for (int i = 0; i < regNos.size(); i += BULK_DELETE_CHUNK) {
+            List<String> chunk = regNos.subList(i, Math.min(i + BULK_DELETE_CHUNK, regNos.size()));
+            students += studentRepo.deleteByRegNoIn(chunk);
+            staff += staffRepo.deleteByRegNoIn(chunk);
+        }
+        profiles.evictAll(regNos);
+        return Map.of("deletedCount", students + staff, "studentsDeleted", students, "staffDeleted", staff);
     }
 
     @jakarta.transaction.Transactional
@@ -97,9 +151,14 @@ public class LibraryController {
             s.setDepartment(dept);
             staffRepo.save(s);
         }
+        profiles.evict(regNo);
 
     // 2. Update Logs
-        logRepo.updateUnknownEntries(regNo, name, dept, type.toUpperCase());
+        gate.flushPending();
+        List<LocalDate> days = rollups.unknownDays(regNo);
+        int updated = logRepo.updateUnknownEntries(regNo, name, dept, type.toUpperCase(), changes.nextForTransaction());
+        gate.unknownResolved(regNo, name, dept, type.toUpperCase(), updated);
+        rollups.rebuildDays(days);
 
         return Map.of("success", true, "message", "User Registered and Logs Updated");
     }
@@ -107,29 +166,17 @@ public class LibraryController {
     @jakarta.transaction.Transactional
     @PostMapping("/sync-unknown")
     public Map<String, Integer> syncUnknownLogs() {
-        List<LogEntry> unknowns = logRepo.findByNameIsNull();
-        System.out.println("SYNC: Found " + unknowns.size() + " unknown entries.");
-        
-        Set<String> regNos = new HashSet<>();
-        for (LogEntry l : unknowns) regNos.add(l.getRegNo());
-
-        int count = 0;
-        for (String regNo : regNos) {
-            Optional<Student> s = studentRepo.findById(regNo);
-            if (s.isPresent()) {
-                System.out.println("SYNC: Resolving " + regNo + " as STUDENT");
-                logRepo.updateUnknownEntries(regNo, s.get().getName(), s.get().getDepartment(), "STUDENT");
-                count++;
-            } else {
-                Optional<Staff> st = staffRepo.findById(regNo);
-                if (st.isPresent()) {
-                    System.out.println("SYNC: Resolving " + regNo + " as STAFF");
-                    logRepo.updateUnknownEntries(regNo, st.get().getName(), st.get().getDepartment(), "STAFF");
-                    count++;
-                }
-            }
+        gate.flushPending();
+        List<LocalDate> days = rollups.unknownDays(null);
+        long seq = changes.nextForTransaction();
+        int students = logRepo.resolveUnknownStudents(seq);
+        int staff = logRepo.resolveUnknownStaff(seq);
+        int count = students + staff;
+        if (count > 0) {
+            gate.unknownsResolved(count);
+            rollups.rebuildDays(days);
         }
-        return Map.of("resolvedCount", count);
+        return Map.of("resolvedCount", count, "studentEntries", students, "staffEntries", staff);
     }
 
     // -------- LOG ENTRIES --------
@@ -139,39 +186,61 @@ public class LibraryController {
         return logRepo.findAll();
     }
 
+    // Newest first; pass `next` from the previous page as `after`
+    @GetMapping("/log_entry/page")
+    public LogEntryPage logPage(LogEntryFilter filter,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(defaultValue = "100") int limit) {
+        return logQueries.page(filter, after, Math.min(Math.max(limit, 1), 1000));
+    }
+
+    // Entries created, checked out or resolved after `since`. Call without `since` to get a starting cursor.
+    @GetMapping("/log_entry/changes")
+    public Map<String, Object> changes(@RequestParam(required = false) Long since,
+                                       @RequestParam(defaultValue = "1000") int limit) {
+        long upTo = changes.watermark();
+        if (since == null) {
+            return Map.of("entries", List.of(), "cursor", upTo, "hasMore", false);
+        }
+        int size = Math.min(Math.max(limit, 1), 5000);
+        List<LogEntry> page = logRepo.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(
+                since, upTo, PageRequest.of(0, size));
+        boolean hasMore = page.size() == size;
+        if (!hasMore) {
+            return Map.of("entries", page, "cursor", Math.max(since, upTo), "hasMore", false);
+        }
+        // Bulk operations stamp many rows with one seq; never split such a group across pages
+        long lastSeq = page.get(page.size() - 1).getChangeSeq();
+        List<LogEntry> entries = page.get(0).getChangeSeq() == lastSeq
+                ? logRepo.findByChangeSeq(lastSeq)
+                : page.stream().filter(e -> e.getChangeSeq() != lastSeq).toList();
+        long cursor = entries.get(entries.size() - 1).getChangeSeq();
+        return Map.of("entries", entries, "cursor", cursor, "hasMore", true);
+    }
+
    @PostMapping("/log_entry")
    public LogEntry addOrToggleEntry(@RequestBody LogEntry req) {
+       return gate.toggle(req);
+   }
 
-    Optional<LogEntry> active =
-            logRepo.findTopByRegNoAndCheckOutTimeIsNull(req.getRegNo());
-
-    // 🔁 CHECK-OUT
-    if (active.isPresent()) {
-        LogEntry e = active.get();
-        e.setCheckOutTime(LocalDateTime.now());
-        return logRepo.save(e);
+    @PostMapping("/scan/{regNo}")
+    public ScanResult scan(@PathVariable String regNo) {
+        return gate.scan(regNo);
     }
 
-    // ➕ CHECK-IN
-    req.setId(null); // ensure new UUID
-    req.setCheckInTime(LocalDateTime.now());
-    return logRepo.save(req);
-   }
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return events.subscribe();
+    }
 
     @PutMapping("/log_entry/{id}/checkout")
-    public LogEntry checkout(@PathVariable String id) {
-        LogEntry e = logRepo.findById(id).orElseThrow();
-        e.setCheckOutTime(LocalDateTime.now());
-        return logRepo.save(e);
+    public LogEntry checkout(@PathVariable UUID id) {
+        return gate.checkout(id);
     }
 
     @PutMapping("/log_entry/checkout-all")
-    public void checkoutAll() {
-        logRepo.findByCheckOutTimeIsNull()
-               .forEach(e -> {
-                   e.setCheckOutTime(LocalDateTime.now());
-                   logRepo.save(e);
-               });
+    public Map<String, Integer> checkoutAll() {
+        return Map.of("closedCount", gate.checkoutAll());
     }
 
     @GetMapping("/ping")
@@ -0,0 +1,39 @@
+package com.library.controller;
+
+import com.library.dto.Occupancy;
+import com.library.dto.OccupancySeries;
+import com.library.service.OccupancyCounters;
+import com.library.service.OccupancySampler;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class OccupancyController {
+
+    private final OccupancyCounters occupancy;
+    private final OccupancySampler sampler;
+
+    public OccupancyController(OccupancyCounters o, OccupancySampler s) {
+        this.occupancy = o;
+        this.sampler = s;
+    }
+
+    // Who is inside right now, from in-memory counters (no table scan)
+    @GetMapping("/occupancy")
+    public Occupancy occupancy() {
+        return occupancy.snapshot();
+    }
+
+    // Per-minute occupancy and entry/exit counts for [from, to); defaults to the last 24 hours
+    @GetMapping("/occupancy/series")
+    public OccupancySeries series(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now().plusMinutes(1);
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        return sampler.series(start, end);
+    }
+}
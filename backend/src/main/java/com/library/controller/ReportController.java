@@ -0,0 +1,73 @@
+package com.library.controller;
+
+import com.library.dto.LogEntryFilter;
+import com.library.dto.LogEntryPage;
+import com.library.repository.LogEntryQueries;
+import com.library.service.LogHistory;
+import com.library.service.ReportCsvExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    private final LogEntryQueries logQueries;
+    private final LogHistory history;
+    private final ReportCsvExporter csvExporter;
+    private final long countLimit;
+
+    public ReportController(LogEntryQueries q, LogHistory h, ReportCsvExporter c,
+                            @Value("${library.reports.count-limit:10000}") long countLimit) {
+        this.logQueries = q;
+        this.history = h;
+        this.csvExporter = c;
+        this.countLimit = countLimit;
+    }
+
+    // Filtered report rows, newest first, including archived months. `total` is only counted on
+    // the first page (no `after`) and stops at library.reports.count-limit (`totalCapped`).
+    @GetMapping("/entries")
+    public LogEntryPage entries(LogEntryFilter filter,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(defaultValue = "100") int limit) {
+        LogEntryPage page = history.page(filter, after, Math.min(Math.max(limit, 1), 1000));
+        if (after == null || after.isBlank()) {
+            long total = history.count(filter, countLimit);
+            page.setTotal(total);
+            page.setTotalCapped(total >= countLimit);
+        }
+        return page;
+    }
+
+    // Per-department, per-user-type counts for the same filters
+    @GetMapping("/summary")
+    public Map<String, Map<String, Long>> summary(LogEntryFilter filter) {
+        return history.summary(filter);
+    }
+
+    // Same filters as /entries, streamed as CSV (gzip is applied by server compression)
+    @GetMapping("/export.csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(LogEntryFilter filter) {
+        String range = (filter.getFrom() != null ? filter.getFrom().toString() : "ALL")
+                + "_to_" + (filter.getTo() != null ? filter.getTo().toString() : "ALL");
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"SEC_Library_Logs_" + range + ".csv\"")
+                .body(out -> csvExporter.export(filter, out));
+    }
+
+    @GetMapping("/departments")
+    public List<String> departments() {
+        return logQueries.departments();
+    }
+}
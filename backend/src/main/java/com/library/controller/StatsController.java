@@ -0,0 +1,38 @@
+package com.library.controller;
+
+import com.library.dto.VisitStats;
+import com.library.service.VisitRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    private final VisitRollupService rollups;
+
+    public StatsController(VisitRollupService r) {
+        this.rollups = r;
+    }
+
+    // Dashboard statistics for a check-in date range (inclusive); defaults to today
+    @GetMapping("/stats")
+    public VisitStats stats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end;
+        if (end.isBefore(start)) throw new IllegalArgumentException("'to' is before 'from'");
+        return rollups.stats(start, end);
+    }
+
+    // Backfill / repair: recompute the daily rollups for [from, to] from log_entry
+    @PostMapping("/stats/rollups/rebuild")
+    public Map<String, Integer> rebuildRollups(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return Map.of("rebuiltDays", rollups.rebuild(from, to));
+    }
+}
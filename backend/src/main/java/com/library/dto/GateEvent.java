@@ -0,0 +1,30 @@
+package com.library.dto;
+
+import com.library.entity.LogEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateEvent {
+
+    public enum Type { CHECK_IN, CHECK_OUT, CHECKOUT_ALL, UNKNOWN_RESOLVED }
+
+    private Type type;
+    private String regNo;       // null for CHECKOUT_ALL
+    private LogEntry entry;     // the affected entry for CHECK_IN / CHECK_OUT
+    private Integer count;      // sessions closed (CHECKOUT_ALL) or entries resolved (UNKNOWN_RESOLVED)
+    private LocalDateTime time;
+
+    public static GateEvent of(Type type, LogEntry entry) {
+        return new GateEvent(type, entry.getRegNo(), entry, null, LocalDateTime.now());
+    }
+
+    public static GateEvent count(Type type, String regNo, int count) {
+        return new GateEvent(type, regNo, null, count, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,26 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportResult {
+    private int rows;
+    private int students;
+    private int staff;
+    private int errorCount;
+    private List<RowError> errors = new ArrayList<>();   // first MAX_REPORTED_ERRORS only
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private int line;
+        private String regNo;
+        private String message;
+    }
+}
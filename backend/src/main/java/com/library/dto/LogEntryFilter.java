@@ -0,0 +1,21 @@
+package com.library.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/** Optional filters for log_entry listings; bound straight from query parameters. */
+@Data
+public class LogEntryFilter {
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;        // inclusive, by check-in date
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;          // inclusive, by check-in date
+    private String regNo;
+    private String department;
+    private String userType;
+    private Boolean open;          // true = still inside, false = checked out
+    private Boolean unknown;       // true = unregistered card (userType UNKNOWN or no name), false = known
+    private String search;         // prefix of regNo or name
+}
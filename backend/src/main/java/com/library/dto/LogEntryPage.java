@@ -0,0 +1,22 @@
+package com.library.dto;
+
+import com.library.entity.LogEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogEntryPage {
+    private List<LogEntry> entries;
+    private String next;    // pass as `after` for the following page; null on the last page
+    private Long total;     // matching rows, only computed where requested
+    private Boolean totalCapped;    // true when counting stopped at the cap, i.e. total is a lower bound
+
+    public LogEntryPage(List<LogEntry> entries, String next) {
+        this(entries, next, null, null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/** People currently inside, from the in-memory counters. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Occupancy {
+    private long total;
+    private Map<String, Long> byDepartment;
+    private Map<String, Long> byUserType;
+    private LocalDateTime time;
+}
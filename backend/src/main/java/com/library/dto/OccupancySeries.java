@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Per-minute occupancy samples for a time range; the arrays are parallel to {@code time}. */
+@Data
+public class OccupancySeries {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<LocalDateTime> time;
+    private int[] occupancy;
+    private int[] entries;         // check-ins during the minute
+    private int[] exits;           // check-outs during the minute
+    private LocalDateTime peakTime;
+    private int peak;
+}
@@ -0,0 +1,15 @@
+package com.library.dto;
+
+import com.library.entity.LogEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanResult {
+    private LogEntry entry;
+    private String direction;   // IN / OUT
+    private String userType;    // STUDENT / STAFF / UNKNOWN
+}
@@ -1,8 +1,15 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserProfile {
     private String regNo;
     private String name;
     private String department;
     private String userType;
-
-    // constructors + getters + setters
 }
@@ -0,0 +1,18 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class VisitStats {
+    private LocalDate from;
+    private LocalDate to;
+    private long totalVisits;
+    private long uniqueUsers;
+    private Map<String, Long> byDepartment = new LinkedHashMap<>();   // largest first
+    private Map<String, Long> byUserType = new LinkedHashMap<>();
+    private long[] hourly = new long[24];                             // check-ins per hour of day
+}
@@ -2,14 +2,19 @@ package com.library.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Data
 public class LogEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @TimeOrderedId
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id;        // BINARY(16), UUIDv7
 
     private String regNo;
     private String name;
@@ -18,4 +23,7 @@ public class LogEntry {
 
     private LocalDateTime checkInTime = LocalDateTime.now();
     private LocalDateTime checkOutTime;
+
+    // Bumped on check-in, check-out and unknown resolution; drives /log_entry/changes
+    private Long changeSeq;
 }
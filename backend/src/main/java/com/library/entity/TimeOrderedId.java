@@ -0,0 +1,29 @@
+package com.library.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Generates the id with {@link UuidV7} when an entity is first persisted. */
+@IdGeneratorType(TimeOrderedId.Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+
+    class Generator implements org.hibernate.generator.BeforeExecutionGenerator {
+
+        @Override
+        public Object generate(org.hibernate.engine.spi.SharedSessionContractImplementor session, Object owner,
+                               Object currentValue, org.hibernate.generator.EventType eventType) {
+            return UuidV7.next();
+        }
+
+        @Override
+        public java.util.EnumSet<org.hibernate.generator.EventType> getEventTypes() {
+            return org.hibernate.generator.EventTypeSets.INSERT_ONLY;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.library.metrics;
+
+import com.library.service.GateEventBroadcaster;
+import com.library.service.MasterDataCache;
+import com.library.service.OccupancyCounters;
+import com.library.service.ScanWriteBehind;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/** Gauges over state the gate services already keep: lookup cache, occupancy, write-behind queue, SSE clients. */
+@Component
+public class GateMetrics implements MeterBinder {
+
+    private final MasterDataCache cache;
+    private final OccupancyCounters occupancy;
+    private final ScanWriteBehind writeBehind;
+    private final GateEventBroadcaster events;
+
+    public GateMetrics(MasterDataCache cache, OccupancyCounters occupancy, ScanWriteBehind writeBehind,
+                       GateEventBroadcaster events) {
+        this.cache = cache;
+        this.occupancy = occupancy;
+        this.writeBehind = writeBehind;
+        this.events = events;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("library.cache.lookup.requests", cache, c -> c.stats().get("hits"))
+                .tag("result", "hit").description("Master data lookups served from the cache").register(registry);
+        FunctionCounter.builder("library.cache.lookup.requests", cache, c -> c.stats().get("misses"))
+                .tag("result", "miss").description("Master data lookups that queried the database").register(registry);
+        FunctionCounter.builder("library.cache.lookup.evictions", cache, c -> c.stats().get("evictions"))
+                .register(registry);
+        Gauge.builder("library.cache.lookup.size", cache, c -> c.stats().get("size")).register(registry);
+        Gauge.builder("library.cache.lookup.hit.ratio", cache, c -> {
+            var s = c.stats();
+            long total = s.get("hits") + s.get("misses");
+            return total == 0 ? Double.NaN : (double) s.get("hits") / total;
+        }).register(registry);
+
+        Gauge.builder("library.occupancy", occupancy, OccupancyCounters::total)
+                .description("People currently checked in").register(registry);
+        Gauge.builder("library.scan.write-behind.pending", writeBehind, ScanWriteBehind::pending).register(registry);
+        Gauge.builder("library.events.clients", events, GateEventBroadcaster::clientCount).register(registry);
+    }
+}
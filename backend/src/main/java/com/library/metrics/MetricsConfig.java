@@ -0,0 +1,34 @@
+package com.library.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+public class MetricsConfig {
+
+    // Replaces Boot's default JSON converter; times serialization as library.http.serialization by body type
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper mapper,
+                                                                                   MeterRegistry registry) {
+        return new MappingJackson2HttpMessageConverter(mapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage out) throws IOException {
+                Timer.Sample sample = Timer.start(registry);
+                try {
+                    super.writeInternal(object, type, out);
+                } finally {
+                    sample.stop(registry.timer("library.http.serialization",
+                            "type", object == null ? "null" : object.getClass().getSimpleName()));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package com.library.repository;
+
+import com.library.dto.LogEntryFilter;
+import com.library.dto.LogEntryPage;
+import com.library.entity.LogEntry;
+import com.library.entity.UuidV7;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Filtered log_entry listings, newest first. Paging is keyset-based on
+ * (check_in_time, id) so page 1000 costs the same index range scan as page 1.
+ */
+@Repository
+public class LogEntryQueries {
+
+    public static final RowMapper<LogEntry> ROW_MAPPER = (rs, i) -> {
+        LogEntry e = new LogEntry();
+        e.setId(UuidV7.fromBytes(rs.getBytes("id")));
+        e.setRegNo(rs.getString("reg_no"));
+        e.setName(rs.getString("name"));
+        e.setDepartment(rs.getString("department"));
+        e.setUserType(rs.getString("user_type"));
+        e.setCheckInTime(rs.getObject("check_in_time", LocalDateTime.class));
+        e.setCheckOutTime(rs.getObject("check_out_time", LocalDateTime.class));
+        e.setChangeSeq(rs.getObject("change_seq", Long.class));
+        return e;
+    };
+
+    private static final String COLUMNS =
+            "id, reg_no, name, department, user_type, check_in_time, check_out_time, change_seq";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate streamingJdbc;
+
+    public LogEntryQueries(NamedParameterJdbcTemplate jdbc, DataSource dataSource) {
+        this.jdbc = jdbc;
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        // Connector/J streams rows one at a time instead of buffering the result set
+        streaming.setFetchSize(Integer.MIN_VALUE);
+        this.streamingJdbc = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    public LogEntryPage page(LogEntryFilter filter, String after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        List<String> where = conditions(filter, params);
+        if (after != null && !after.isBlank()) {
+            Cursor c = Cursor.decode(after);
+            where.add("(check_in_time < :afterTime OR (check_in_time = :afterTime AND id < :afterId))");
+            params.addValue("afterTime", c.checkInTime()).addValue("afterId", UuidV7.toBytes(c.id()));
+        }
+        params.addValue("limit", limit + 1);
+
+        String sql = "SELECT " + COLUMNS + " FROM log_entry" + whereClause(where)
+                + " ORDER BY check_in_time DESC, id DESC LIMIT :limit";
+        List<LogEntry> rows = jdbc.query(sql, params, ROW_MAPPER);
+
+        if (rows.size() <= limit) return new LogEntryPage(rows, null);
+        List<LogEntry> entries = rows.subList(0, limit);
+        LogEntry last = entries.get(limit - 1);
+        return new LogEntryPage(new ArrayList<>(entries), new Cursor(last.getCheckInTime(), last.getId()).encode());
+    }
+
+    static List<String> conditions(LogEntryFilter f, MapSqlParameterSource params) {
+        List<String> where = new ArrayList<>();
+        if (f.getFrom() != null) {
+            where.add("check_in_time >= :from");
+            params.addValue("from", f.getFrom().atStartOfDay());
+        }
+        if (f.getTo() != null) {
+            where.add("check_in_time < :to");
+            params.addValue("to", f.getTo().plusDays(1).atStartOfDay());
+        }
+        if (f.getRegNo() != null && !f.getRegNo().isBlank()) {
+            where.add("reg_no = :regNo");
+            params.addValue("regNo", f.getRegNo());
+        }
+        if (f.getDepartment() != null && !f.getDepartment().isBlank()) {
+            where.add("department = :department");
+            params.addValue("department", f.getDepartment());
+        }
+        if (f.getUserType() != null && !f.getUserType().isBlank()) {
+            where.add("user_type = :userType");
+            params.addValue("userType", f.getUserType().toUpperCase());
+        }
+        if (f.getSearch() != null && !f.getSearch().isBlank()) {
+            // Prefix match so the (reg_no, ...) and (name, ...) indexes serve it
+            where.add("(reg_no LIKE :search OR name LIKE :search)");
+            params.addValue("search", escapeLike(f.getSearch().trim()) + "%");
+        }
+        if (f.getUnknown() != null) {
+            // Same rule as the Unknown Entries page: older rows may carry a type but no name
+            where.add(f.getUnknown() ? "(user_type = 'UNKNOWN' OR name IS NULL)"
+                    : "(COALESCE(user_type, '') <> 'UNKNOWN' AND name IS NOT NULL)");
+        }
+        if (f.getOpen() != null) {
+            where.add(f.getOpen() ? "check_out_time IS NULL" : "check_out_time IS NOT NULL");
+        }
+        return where;
+    }
+
+    /** Streams every matching row, newest first, without holding the result set in memory. */
+    public void stream(LogEntryFilter filter, RowCallbackHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "SELECT " + COLUMNS + " FROM log_entry" + whereClause(conditions(filter, params))
+                + " ORDER BY check_in_time DESC, id DESC";
+        streamingJdbc.query(sql, params, handler);
+    }
+
+    /** Matching rows, counting no further than {@code cap} so a broad filter stays cheap. */
+    public long count(LogEntryFilter filter, long cap) {
+        MapSqlParameterSource params = new MapSqlParameterSource("cap", cap);
+        String sql = "SELECT COUNT(*) FROM (SELECT 1 FROM log_entry" + whereClause(conditions(filter, params))
+                + " LIMIT :cap) t";
+        Long n = jdbc.queryForObject(sql, params, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    /** Matching rows per department and user type. */
+    public Map<String, Map<String, Long>> summary(LogEntryFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "SELECT department, user_type, COUNT(*) AS n FROM log_entry" + whereClause(conditions(filter, params))
+                + " GROUP BY department, user_type";
+        Map<String, Map<String, Long>> out = new TreeMap<>();
+        jdbc.query(sql, params, rs -> {
+            addTo(out, rs.getString("department"), rs.getString("user_type"), rs.getLong("n"));
+        });
+        return out;
+    }
+
+    public static void addTo(Map<String, Map<String, Long>> summary, String department, String userType, long n) {
+        summary.computeIfAbsent(department != null ? department : "Unknown", k -> new TreeMap<>())
+                .merge(userType != null ? userType : "UNKNOWN", n, Long::sum);
+    }
+
+    public List<String> departments() {
+        return jdbc.getJdbcTemplate().queryForList(
+                "SELECT DISTINCT department FROM log_entry WHERE department IS NOT NULL ORDER BY department", String.class);
+    }
+
+    // -------- ARCHIVE SUPPORT --------
+
+    /** Months (first day) with closed entries checked in before {@code cutoff}, oldest first. */
+    public List<LocalDate> closedMonthsBefore(LocalDateTime cutoff) {
+        return jdbc.queryForList(
+                "SELECT DISTINCT DATE_FORMAT(check_in_time, '%Y-%m-01') FROM log_entry " +
+                "WHERE check_in_time < :cutoff AND check_out_time IS NOT NULL ORDER BY 1",
+                new MapSqlParameterSource("cutoff", cutoff), String.class)
+                .stream().map(LocalDate::parse).toList();
+    }
+
+    /** Streams closed entries with from &lt;= check_in_time &lt; to, oldest first, without holding them in memory. */
+    public void streamClosedBetween(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        streamingJdbc.query("SELECT " + COLUMNS + " FROM log_entry " +
+                        "WHERE check_in_time >= :from AND check_in_time < :to AND check_out_time IS NOT NULL " +
+                        "ORDER BY check_in_time, id",
+                new MapSqlParameterSource("from", from).addValue("to", to), handler);
+    }
+
+    /** Deletes the given ids; the check-in range lets MySQL prune to the month's partition. */
+    public int deleteClosed(Collection<UUID> ids, LocalDateTime from, LocalDateTime to) {
+        if (ids.isEmpty()) return 0;
+        MapSqlParameterSource params = new MapSqlParameterSource("from", from).addValue("to", to)
+                .addValue("ids", ids.stream().map(UuidV7::toBytes).toList());
+        return jdbc.update("DELETE FROM log_entry WHERE check_in_time >= :from AND check_in_time < :to " +
+                "AND check_out_time IS NOT NULL AND id IN (:ids)", params);
+    }
+
+    static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    static String whereClause(List<String> where) {
+        return where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where);
+    }
+
+    /** Opaque position token: base64url of "checkInTime|id". */
+    public record Cursor(LocalDateTime checkInTime, UUID id) {
+
+        public String encode() {
+            String raw = checkInTime + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int bar = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, bar)), UUID.fromString(raw.substring(bar + 1)));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+        }
+    }
+}
@@ -1,21 +1,52 @@
 package com.library.repository;
 
 import com.library.entity.LogEntry;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.UUID;
 
 import java.util.List;
 
-public interface LogEntryRepository extends JpaRepository<LogEntry, String> {
+public interface LogEntryRepository extends JpaRepository<LogEntry, UUID> {
 
     List<LogEntry> findByCheckOutTimeIsNull();
 
-    Optional<LogEntry> findTopByRegNoAndCheckOutTimeIsNull(String regNo);
-
     // Find custom query to update unknown entries
     @org.springframework.data.jpa.repository.Modifying
-    @org.springframework.data.jpa.repository.Query("UPDATE LogEntry l SET l.name = :name, l.department = :department, l.userType = :userType WHERE l.regNo = :regNo AND l.name IS NULL")
-    void updateUnknownEntries(String regNo, String name, String department, String userType);
+    @org.springframework.data.jpa.repository.Query("UPDATE LogEntry l SET l.name = :name, l.department = :department, l.userType = :userType, l.changeSeq = :seq WHERE l.regNo = :regNo AND l.name IS NULL")
+    int updateUnknownEntries(String regNo, String name, String department, String userType, long seq);
+
+    // Set-based unknown resolution; students win when a regNo is in both tables
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query(nativeQuery = true, value =
+            "UPDATE log_entry l JOIN student s ON s.reg_no = l.reg_no " +
+            "SET l.name = s.name, l.department = s.department, l.user_type = 'STUDENT', l.change_seq = :seq " +
+            "WHERE l.name IS NULL AND s.name IS NOT NULL")
+    int resolveUnknownStudents(long seq);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query(nativeQuery = true, value =
+            "UPDATE log_entry l JOIN staff st ON st.reg_no = l.reg_no LEFT JOIN student s ON s.reg_no = l.reg_no " +
+            "SET l.name = st.name, l.department = st.department, l.user_type = 'STAFF', l.change_seq = :seq " +
+            "WHERE l.name IS NULL AND s.reg_no IS NULL AND st.name IS NOT NULL")
+    int resolveUnknownStaff(long seq);
+
+    // Closes one open session without loading it first; the check-in window lets MySQL prune to one partition
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE LogEntry l SET l.checkOutTime = :time, l.changeSeq = :seq " +
+            "WHERE l.id = :id AND l.checkInTime BETWEEN :checkInFrom AND :checkInTo AND l.checkOutTime IS NULL")
+    int closeSession(UUID id, LocalDateTime checkInFrom, LocalDateTime checkInTo, LocalDateTime time, long seq);
+
+    // Checkout-all in one statement
+    @org.springframework.transaction.annotation.Transactional
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE LogEntry l SET l.checkOutTime = :time, l.changeSeq = :seq WHERE l.checkOutTime IS NULL")
+    int closeAllSessions(LocalDateTime time, long seq);
+
+    // Change feed: rows touched after a cursor, up to the committed watermark
+    List<LogEntry> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAsc(long since, long upTo, Pageable page);
 
-    List<LogEntry> findByNameIsNull();
+    List<LogEntry> findByChangeSeq(long seq);
 }
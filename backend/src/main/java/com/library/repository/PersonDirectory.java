@@ -0,0 +1,48 @@
+package com.library.repository;
+
+import com.library.dto.UserProfile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+
+/**
+ * Read-only view over the student and staff tables that resolves regNos with one
+ * UNION query instead of probing each repository in turn. A regNo present in both
+ * tables resolves as STUDENT, matching the old lookup order.
+ */
+@Repository
+public class PersonDirectory {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final String RESOLVE_SQL =
+            "SELECT reg_no, name, department, 'STUDENT' AS user_type FROM student WHERE reg_no IN (:regNos) " +
+            "UNION ALL " +
+            "SELECT reg_no, name, department, 'STAFF' AS user_type FROM staff WHERE reg_no IN (:regNos)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public PersonDirectory(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Optional<UserProfile> resolve(String regNo) {
+        return Optional.ofNullable(resolveAll(List.of(regNo)).get(regNo));
+    }
+
+    /** Resolves many regNos at once; unknown ones are simply absent from the result. */
+    public Map<String, UserProfile> resolveAll(Collection<String> regNos) {
+        Map<String, UserProfile> found = new HashMap<>();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(regNos));
+        for (int i = 0; i < ids.size(); i += CHUNK_SIZE) {
+            List<String> chunk = ids.subList(i, Math.min(i + CHUNK_SIZE, ids.size()));
+            jdbc.query(RESOLVE_SQL, Map.of("regNos", chunk), rs -> {
+                UserProfile p = new UserProfile(rs.getString("reg_no"), rs.getString("name"),
+                        rs.getString("department"), rs.getString("user_type"));
+                found.merge(p.getRegNo(), p, (a, b) -> "STUDENT".equals(a.getUserType()) ? a : b);
+            });
+        }
+        return found;
+    }
+}
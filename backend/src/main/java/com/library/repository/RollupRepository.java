@@ -0,0 +1,115 @@
+package com.library.repository;
+
+import com.library.dto.VisitStats;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/** SQL for the visit_rollup / visit_rollup_visitor summary tables. */
+@Repository
+public class RollupRepository {
+
+    private static final String UPSERT_VISITS =
+            "INSERT INTO visit_rollup (visit_date, visit_hour, department, user_type, visits) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE visits = visits + VALUES(visits)";
+    private static final String INSERT_VISITOR =
+            "INSERT IGNORE INTO visit_rollup_visitor (visit_date, reg_no) VALUES (?, ?)";
+
+    private static final String LOG_RANGE = " FROM log_entry WHERE check_in_time >= :start AND check_in_time < :end";
+    private static final String ROLLUP_RANGE = " FROM visit_rollup WHERE visit_date BETWEEN :from AND :to";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public RollupRepository(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Rows of (visit_date, visit_hour, department, user_type, visits-delta). */
+    public void addVisits(List<Object[]> deltas) {
+        if (!deltas.isEmpty()) jdbc.getJdbcTemplate().batchUpdate(UPSERT_VISITS, deltas);
+    }
+
+    /** Rows of (visit_date, reg_no). */
+    public void addVisitors(List<Object[]> visitors) {
+        if (!visitors.isEmpty()) jdbc.getJdbcTemplate().batchUpdate(INSERT_VISITOR, visitors);
+    }
+
+    /** Recomputes one day's rollup rows from log_entry. Call inside a transaction. */
+    public void rebuildDay(LocalDate day) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("day", Date.valueOf(day))
+                .addValue("start", day.atStartOfDay())
+                .addValue("end", day.plusDays(1).atStartOfDay());
+        jdbc.update("DELETE FROM visit_rollup WHERE visit_date = :day", p);
+        jdbc.update("INSERT INTO visit_rollup (visit_date, visit_hour, department, user_type, visits) " +
+                "SELECT :day, HOUR(check_in_time), COALESCE(department, 'Unknown'), COALESCE(user_type, 'UNKNOWN'), COUNT(*)" +
+                LOG_RANGE + " GROUP BY HOUR(check_in_time), COALESCE(department, 'Unknown'), COALESCE(user_type, 'UNKNOWN')", p);
+        jdbc.update("DELETE FROM visit_rollup_visitor WHERE visit_date = :day", p);
+        jdbc.update("INSERT INTO visit_rollup_visitor (visit_date, reg_no) SELECT DISTINCT :day, reg_no" + LOG_RANGE, p);
+    }
+
+    /** Days in [start, end) that have check-ins. */
+    public List<LocalDate> daysWithEntries(LocalDate start, LocalDate end) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("start", start.atStartOfDay())
+                .addValue("end", end.atStartOfDay());
+        return jdbc.queryForList("SELECT DISTINCT DATE(check_in_time)" + LOG_RANGE, p, Date.class)
+                .stream().map(Date::toLocalDate).toList();
+    }
+
+    /** Check-in day of the oldest live entry; null when log_entry is empty. */
+    public LocalDate firstEntryDay() {
+        Timestamp t = jdbc.getJdbcTemplate().queryForObject("SELECT MIN(check_in_time) FROM log_entry", Timestamp.class);
+        return t == null ? null : t.toLocalDateTime().toLocalDate();
+    }
+
+    /** Days in [from, to] that already have rollup rows. */
+    public List<LocalDate> rolledUpDays(LocalDate from, LocalDate to) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to));
+        return jdbc.queryForList("SELECT DISTINCT visit_date" + ROLLUP_RANGE, p, Date.class)
+                .stream().map(Date::toLocalDate).toList();
+    }
+
+    /** Days on which {@code regNo} has entries still waiting for a profile. */
+    public List<LocalDate> unknownDays(String regNo) {
+        MapSqlParameterSource p = new MapSqlParameterSource("regNo", regNo);
+        String sql = "SELECT DISTINCT DATE(check_in_time) FROM log_entry WHERE name IS NULL"
+                + (regNo == null ? "" : " AND reg_no = :regNo");
+        return jdbc.queryForList(sql, p, Date.class).stream().map(Date::toLocalDate).toList();
+    }
+
+    /** Adds the rollup totals for [from, to] into {@code stats}; unique users are left to the caller. */
+    public void addTo(VisitStats stats, LocalDate from, LocalDate to) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to));
+        jdbc.query("SELECT department, user_type, visit_hour, SUM(visits) AS n" + ROLLUP_RANGE
+                + " GROUP BY department, user_type, visit_hour", p, rs -> {
+            long n = rs.getLong("n");
+            stats.setTotalVisits(stats.getTotalVisits() + n);
+            stats.getByDepartment().merge(rs.getString("department"), n, Long::sum);
+            stats.getByUserType().merge(rs.getString("user_type"), n, Long::sum);
+            stats.getHourly()[rs.getInt("visit_hour")] += n;
+        });
+    }
+
+    /** Distinct regNos over rollup days [from, to] plus live log_entry check-ins in [liveStart, liveEnd). */
+    public long uniqueVisitors(LocalDate from, LocalDate to, LocalDate liveStart, LocalDate liveEnd) {
+        MapSqlParameterSource p = new MapSqlParameterSource()
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to))
+                .addValue("start", liveStart.atStartOfDay())
+                .addValue("end", liveEnd.atStartOfDay());
+        Long n = jdbc.queryForObject("SELECT COUNT(*) FROM (" +
+                "SELECT reg_no FROM visit_rollup_visitor WHERE visit_date BETWEEN :from AND :to " +
+                "UNION SELECT reg_no" + LOG_RANGE + ") v", p, Long.class);
+        return n == null ? 0 : n;
+    }
+}
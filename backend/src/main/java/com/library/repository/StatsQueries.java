@@ -0,0 +1,47 @@
+package com.library.repository;
+
+import com.library.dto.VisitStats;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/** Visit statistics computed with GROUP BY over log_entry for a check-in date range. */
+@Repository
+public class StatsQueries {
+
+    private static final String RANGE = " FROM log_entry WHERE check_in_time >= :from AND check_in_time < :to";
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public StatsQueries(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Stats for check-ins on days {@code from}..{@code to}, both inclusive. */
+    public VisitStats compute(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from.atStartOfDay())
+                .addValue("to", to.plusDays(1).atStartOfDay());
+
+        VisitStats stats = new VisitStats();
+        stats.setFrom(from);
+        stats.setTo(to);
+
+        jdbc.query("SELECT COUNT(*) AS visits, COUNT(DISTINCT reg_no) AS users" + RANGE, params, rs -> {
+            stats.setTotalVisits(rs.getLong("visits"));
+            stats.setUniqueUsers(rs.getLong("users"));
+        });
+        jdbc.query("SELECT COALESCE(department, 'Unknown') AS dept, COUNT(*) AS n" + RANGE
+                + " GROUP BY dept ORDER BY n DESC", params,
+                rs -> { stats.getByDepartment().merge(rs.getString("dept"), rs.getLong("n"), Long::sum); });
+        jdbc.query("SELECT COALESCE(user_type, 'UNKNOWN') AS type, COUNT(*) AS n" + RANGE
+                + " GROUP BY type", params,
+                rs -> { stats.getByUserType().merge(rs.getString("type"), rs.getLong("n"), Long::sum); });
+        jdbc.query("SELECT HOUR(check_in_time) AS h, COUNT(*) AS n" + RANGE
+                + " GROUP BY h", params,
+                rs -> { stats.getHourly()[rs.getInt("h")] = rs.getLong("n"); });
+        return stats;
+    }
+}
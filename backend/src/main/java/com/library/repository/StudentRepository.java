@@ -2,5 +2,15 @@ package com.library.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.library.entity.Student; 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-public interface StudentRepository extends JpaRepository<Student, String> {}
+import java.util.Collection;
+
+public interface StudentRepository extends JpaRepository<Student, String> {
+
+    // Set-based delete: one statement per chunk, no select-before-delete
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.regNo IN :regNos")
+    int deleteByRegNoIn(Collection<String> regNos);
+}
@@ -0,0 +1,127 @@
+package com.library.service;
+
+import com.library.entity.LogEntry;
+import com.library.repository.LogEntryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of every open session (regNo -> open LogEntry), so the scan
+ * toggle can decide IN vs OUT without querying log_entry.
+ *
+ * Entries are detached copies; callers must go through this class to change them.
+ * Every change is mirrored into {@link OccupancyCounters}.
+ */
+@Component
+public class ActiveSessionIndex {
+
+    private final LogEntryRepository logRepo;
+    private final OccupancyCounters occupancy;
+    private final ConcurrentHashMap<String, LogEntry> open = new ConcurrentHashMap<>();
+
+    public ActiveSessionIndex(LogEntryRepository logRepo, OccupancyCounters occupancy) {
+        this.logRepo = logRepo;
+        this.occupancy = occupancy;
+    }
+
+    // Runs before the web server accepts scans, so no toggle sees an empty index
+    @PostConstruct
+    public void rebuild() {
+        open.clear();
+        for (LogEntry e : logRepo.findByCheckOutTimeIsNull()) {
+            // Older data may hold several open rows for one regNo; keep the latest
+            open.merge(e.getRegNo(), copyOf(e), (a, b) ->
+                    b.getCheckInTime() != null && (a.getCheckInTime() == null || b.getCheckInTime().isAfter(a.getCheckInTime())) ? b : a);
+        }
+        occupancy.reset();
+        open.values().forEach(occupancy::add);
+    }
+
+    public Optional<LogEntry> find(String regNo) {
+        LogEntry e = open.get(regNo);
+        return e == null ? Optional.empty() : Optional.of(copyOf(e));
+    }
+
+    public void opened(LogEntry e) {
+        LogEntry c = copyOf(e);
+        LogEntry previous = open.put(e.getRegNo(), c);
+        if (previous != null) occupancy.remove(previous);
+        occupancy.checkedIn(c);
+    }
+
+    /** Removes the session only if it is still the one identified by {@code id}. */
+    public void closed(String regNo, UUID id) {
+        open.computeIfPresent(regNo, (k, e) -> {
+            if (!e.getId().equals(id)) return e;
+            occupancy.checkedOut(e);
+            return null;
+        });
+    }
+
+    /** Drops a session whose insert was rejected by the database, if it is still the open one. */
+    public void discard(LogEntry e) {
+        open.computeIfPresent(e.getRegNo(), (k, cur) -> {
+            if (!cur.getId().equals(e.getId())) return cur;
+            occupancy.undoCheckIn(cur);
+            return null;
+        });
+    }
+
+    /** Restores a session whose check-out was rejected, unless the card has since checked in again. */
+    public void reopen(LogEntry e) {
+        open.compute(e.getRegNo(), (k, cur) -> {
+            if (cur != null) return cur;
+            LogEntry c = copyOf(e);
+            c.setCheckOutTime(null);
+            occupancy.undoCheckOut(c);
+            return c;
+        });
+    }
+
+    /** Only called with every regNo lock held (checkout-all), so no session opens concurrently. */
+    public void clear() {
+        open.clear();
+        occupancy.checkedOutAll();
+    }
+
+    /** Fills in the profile of an open unknown session once the regNo is registered. */
+    public void resolved(String regNo, String name, String department, String userType) {
+        open.computeIfPresent(regNo, (k, e) -> {
+            if (e.getName() != null) return e;
+            LogEntry c = copyOf(e);
+            c.setName(name);
+            c.setDepartment(department);
+            c.setUserType(userType);
+            occupancy.remove(e);
+            occupancy.add(c);
+            return c;
+        });
+    }
+
+    public int size() {
+        return open.size();
+    }
+
+    public Collection<LogEntry> snapshot() {
+        return Collections.unmodifiableCollection(open.values().stream().map(ActiveSessionIndex::copyOf).toList());
+    }
+
+    static LogEntry copyOf(LogEntry e) {
+        LogEntry c = new LogEntry();
+        c.setId(e.getId());
+        c.setRegNo(e.getRegNo());
+        c.setName(e.getName());
+        c.setDepartment(e.getDepartment());
+        c.setUserType(e.getUserType());
+        c.setCheckInTime(e.getCheckInTime());
+        c.setCheckOutTime(e.getCheckOutTime());
+        c.setChangeSeq(e.getChangeSeq());
+        return c;
+    }
+}
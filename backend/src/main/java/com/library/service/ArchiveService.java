@@ -0,0 +1,112 @@
+package com.library.service;
+
+import com.library.archive.LogArchive;
+import com.library.archive.LogSegment;
+import com.library.entity.LogEntry;
+import com.library.repository.LogEntryQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Moves closed log entries older than {@code library.archive.after-days} (whole months
+ * only) into {@link LogArchive} segments and deletes them from MySQL. Off unless
+ * {@code library.archive.enabled=true}. A segment is fully written and renamed into
+ * place before any row is deleted; rows already present in a segment (from a run that
+ * died before its delete) are skipped rather than archived twice.
+ */
+@Service
+public class ArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+    private static final int DELETE_CHUNK = 1000;
+
+    private final LogEntryQueries logQueries;
+    private final LogArchive archive;
+    private final VisitRollupService rollups;
+    private final TransactionTemplate tx;
+    private final boolean enabled;
+    private final int afterDays;
+
+    public ArchiveService(LogEntryQueries logQueries, LogArchive archive, VisitRollupService rollups,
+                          TransactionTemplate tx,
+                          @Value("${library.archive.enabled:false}") boolean enabled,
+                          @Value("${library.archive.after-days:180}") int afterDays) {
+        this.logQueries = logQueries;
+        this.archive = archive;
+        this.rollups = rollups;
+        this.tx = tx;
+        this.enabled = enabled;
+        this.afterDays = afterDays;
+    }
+
+    @Scheduled(cron = "${library.archive.cron:0 30 1 * * *}")
+    public void scheduled() {
+        if (!enabled) return;
+        try {
+            archive();
+        } catch (RuntimeException | IOException ex) {
+            log.error("Log archival failed", ex);
+        }
+    }
+
+    /** Archives every eligible month; returns the number of rows moved. */
+    public synchronized long archive() throws IOException {
+        // Rollups must be complete for a month before its rows leave MySQL
+        rollups.flush();
+        LocalDateTime cutoff = YearMonth.from(LocalDate.now().minusDays(afterDays)).atDay(1).atStartOfDay();
+        long moved = 0;
+        for (LocalDate first : logQueries.closedMonthsBefore(cutoff)) {
+            moved += archiveMonth(YearMonth.from(first));
+        }
+        return moved;
+    }
+
+    private long archiveMonth(YearMonth month) throws IOException {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        // Rows go straight from the streamed result set into segment blocks; only their ids are kept for the delete
+        Set<UUID> done = archive.ids(from, to);
+        List<UUID> ids = new ArrayList<>();
+        LogSegment segment;
+        try {
+            segment = archive.append(month, writer -> logQueries.streamClosedBetween(from, to, rs -> {
+                LogEntry e = LogEntryQueries.ROW_MAPPER.mapRow(rs, 0);
+                ids.add(e.getId());
+                if (done.contains(e.getId())) return;
+                try {
+                    writer.add(e);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        if (segment != null) {
+            log.info("Archived {} entries for {} to {}", segment.rows(), month, segment.path().getFileName());
+        }
+
+        int deleted = 0;
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK) {
+            List<UUID> chunk = ids.subList(i, Math.min(i + DELETE_CHUNK, ids.size()));
+            Integer n = tx.execute(s -> logQueries.deleteClosed(chunk, from, to));
+            deleted += n == null ? 0 : n;
+        }
+        return deleted;
+    }
+}
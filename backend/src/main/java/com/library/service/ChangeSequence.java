@@ -0,0 +1,72 @@
+package com.library.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out the monotonic change_seq stamped on log_entry rows for the change feed.
+ *
+ * A sequence number is "in flight" from {@link #next()} until {@link #done(long)}
+ * is called after its write commits. Readers only see rows up to the
+ * {@link #watermark()}, so a slow commit can never be skipped by a cursor that has
+ * already moved past it. Assumes a single backend instance owns the table.
+ */
+@Component
+public class ChangeSequence {
+
+    private final JdbcTemplate jdbc;
+    private final AtomicLong last = new AtomicLong();
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+    public ChangeSequence(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // Boot initializes JdbcTemplate after the Flyway migrations, so change_seq exists by now
+    @PostConstruct
+    void seed() {
+        Long max = jdbc.queryForObject("SELECT COALESCE(MAX(change_seq), 0) FROM log_entry", Long.class);
+        last.set(max == null ? 0 : max);
+    }
+
+    public long next() {
+        // Allocate and register atomically w.r.t. watermark() readers
+        synchronized (inFlight) {
+            long seq = last.incrementAndGet();
+            inFlight.add(seq);
+            return seq;
+        }
+    }
+
+    public void done(long seq) {
+        inFlight.remove(seq);
+    }
+
+    /** Allocates a sequence that is released when the surrounding transaction completes. */
+    public long nextForTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("nextForTransaction() needs an active transaction");
+        }
+        long seq = next();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                done(seq);
+            }
+        });
+        return seq;
+    }
+
+    /** Highest sequence below which every write has either committed or been abandoned. */
+    public long watermark() {
+        synchronized (inFlight) {
+            return inFlight.isEmpty() ? last.get() : inFlight.first() - 1;
+        }
+    }
+}
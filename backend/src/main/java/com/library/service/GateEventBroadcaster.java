@@ -0,0 +1,169 @@
+package com.library.service;
+
+import com.library.dto.GateEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans gate events out to every open /api/events stream. Publishing never blocks:
+ * each client has a bounded buffer drained on its own sender thread, and a client
+ * whose buffer overflows, or whose send has been stuck for longer than
+ * {@code library.events.send-timeout-ms}, is disconnected (EventSource will
+ * reconnect and refetch). Heartbeats go through the same buffers, so a stalled
+ * TCP connection only ever holds up its own thread.
+ */
+@Component
+public class GateEventBroadcaster {
+
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    // Threads only exist while a client has something to send; a stalled one cannot starve the others
+    private final ExecutorService senders = Executors.newCachedThreadPool(daemon("sse-send"));
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("sse-heartbeat"));
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+
+    public GateEventBroadcaster(@Value("${library.events.client-buffer:256}") int bufferSize,
+                                @Value("${library.events.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${library.events.heartbeat-ms:20000}") long heartbeatMs,
+                                @Value("${library.events.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        heartbeat.scheduleAtFixedRate(this::ping, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        long checkMs = Math.max(100, sendTimeoutMs / 4);
+        heartbeat.scheduleAtFixedRate(this::dropStalled, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Client c = new Client(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> clients.remove(c));
+        emitter.onTimeout(() -> drop(c));
+        emitter.onError(e -> drop(c));
+        clients.add(c);
+        return emitter;
+    }
+
+    public void publish(GateEvent event) {
+        for (Client c : clients) {
+            if (c.buffer.offer(event)) {
+                schedule(c);
+            } else {
+                drop(c); // slow consumer
+            }
+        }
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+        clients.forEach(c -> c.emitter.complete());
+        clients.clear();
+    }
+
+    private void schedule(Client c) {
+        if (c.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(c));
+            } catch (RejectedExecutionException ex) {
+                c.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Client c) {
+        c.sender = Thread.currentThread();
+        try {
+            GateEvent e;
+            while (clients.contains(c)) {
+                if (c.pingDue.getAndSet(false)) {
+                    send(c, SseEmitter.event().comment("keep-alive"));
+                } else if ((e = c.buffer.poll()) != null) {
+                    send(c, SseEmitter.event().name(e.getType().name()).data(e));
+                } else {
+                    break;
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            drop(c);
+            return;
+        } finally {
+            c.sender = null;
+            c.draining.set(false);
+        }
+        // An event may have arrived between the last poll and releasing the flag
+        if (clients.contains(c) && (!c.buffer.isEmpty() || c.pingDue.get())) schedule(c);
+    }
+
+    private static void send(Client c, SseEmitter.SseEventBuilder event) throws IOException {
+        c.sendingSince = System.nanoTime();
+        try {
+            c.emitter.send(event);
+        } finally {
+            c.sendingSince = 0;
+        }
+    }
+
+    private void ping() {
+        for (Client c : clients) {
+            c.pingDue.set(true);
+            schedule(c);
+        }
+    }
+
+    private void dropStalled() {
+        long now = System.nanoTime();
+        for (Client c : clients) {
+            long since = c.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) drop(c);
+        }
+    }
+
+    // Never completes inline: complete() waits for the emitter's monitor, which a stuck send holds
+    private void drop(Client c) {
+        if (!clients.remove(c)) return;
+        Thread sender = c.sender;
+        if (sender != null) sender.interrupt();
+        try {
+            senders.execute(c.emitter::complete);
+        } catch (RejectedExecutionException ex) {
+            // shutting down
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    private static final class Client {
+        final SseEmitter emitter;
+        final Queue<GateEvent> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean pingDue = new AtomicBoolean();
+        volatile long sendingSince;     // System.nanoTime() of the send in flight, 0 when idle
+        volatile Thread sender;
+
+        Client(SseEmitter emitter, Queue<GateEvent> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.library.service;
+
+import com.library.dto.GateEvent;
+import com.library.dto.ScanResult;
+import com.library.dto.UserProfile;
+import com.library.entity.LogEntry;
+import com.library.entity.UuidV7;
+import com.library.repository.LogEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Check-in / check-out logic shared by the gate endpoints. Every state change
+ * goes through here so the {@link ActiveSessionIndex} never drifts from log_entry.
+ */
+@Service
+public class GateService {
+
+    static final int MAX_COLUMN_LENGTH = 255;
+
+    private final LogEntryRepository logRepo;
+    private final ActiveSessionIndex sessions;
+    private final ScanWriteBehind writeBehind;
+    private final RegNoLocks locks;
+    private final MasterDataCache profiles;
+    private final GateEventBroadcaster events;
+    private final ChangeSequence changes;
+    private final VisitRollupService rollups;
+    private final Counter scansIn;
+    private final Counter scansOut;
+    private final Counter scansUnknown;
+
+    public GateService(LogEntryRepository logRepo, ActiveSessionIndex sessions, ScanWriteBehind writeBehind,
+                       RegNoLocks locks, MasterDataCache profiles, GateEventBroadcaster events,
+                       ChangeSequence changes, VisitRollupService rollups, MeterRegistry registry) {
+        this.logRepo = logRepo;
+        this.sessions = sessions;
+        this.writeBehind = writeBehind;
+        this.locks = locks;
+        this.profiles = profiles;
+        this.events = events;
+        this.changes = changes;
+        this.rollups = rollups;
+        this.scansIn = scanCounter(registry, "IN");
+        this.scansOut = scanCounter(registry, "OUT");
+        this.scansUnknown = scanCounter(registry, "UNKNOWN");
+    }
+
+    private static Counter scanCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("library.scans").tag("outcome", outcome)
+                .description("Gate toggles by outcome (UNKNOWN = check-in of an unregistered card)")
+                .register(registry);
+    }
+
+    /** Lookup + toggle in one call, for scanners that only know the raw regNo. */
+    public ScanResult scan(String regNo) {
+        checkLength("regNo", regNo);
+        Optional<UserProfile> profile = profiles.lookup(regNo);
+
+        LogEntry req = new LogEntry();
+        req.setRegNo(regNo);
+        profile.ifPresentOrElse(p -> {
+            req.setName(p.getName());
+            req.setDepartment(p.getDepartment());
+            req.setUserType(p.getUserType());
+        }, () -> req.setUserType("UNKNOWN"));
+
+        LogEntry entry = toggle(req);
+        return new ScanResult(entry,
+                entry.getCheckOutTime() != null ? "OUT" : "IN",
+                profile.map(UserProfile::getUserType).orElse("UNKNOWN"));
+    }
+
+    /** A toggle's entry and the future that completes once it is in log_entry. */
+    private record Toggle(LogEntry entry, CompletableFuture<Void> committed) {}
+
+    /**
+     * Check-in or check-out for one card, atomic per regNo so double taps cannot open two sessions.
+     * Metrics, rollups and the SSE event follow the commit, so a write-behind scan the database
+     * rejects is never announced.
+     */
+    public LogEntry toggle(LogEntry req) {
+        if (req.getRegNo() == null || req.getRegNo().isBlank()) throw new IllegalArgumentException("regNo is required");
+        checkLength("regNo", req.getRegNo());
+        checkLength("name", req.getName());
+        checkLength("department", req.getDepartment());
+        checkLength("userType", req.getUserType());
+        Toggle t = locks.withLock(req.getRegNo(), () -> writeBehind.isEnabled()
+                ? toggleWriteBehind(req)
+                : new Toggle(toggleDirect(req), CompletableFuture.completedFuture(null)));
+        LogEntry done = ActiveSessionIndex.copyOf(t.entry());
+        t.committed().thenRun(() -> announce(done));
+        writeBehind.awaitCommit(t.committed(), req.getRegNo());
+        return t.entry();
+    }
+
+    private void announce(LogEntry e) {
+        if (e.getCheckOutTime() == null) {
+            (e.getName() == null ? scansUnknown : scansIn).increment();
+            rollups.recordCheckIn(e);
+            events.publish(GateEvent.of(GateEvent.Type.CHECK_IN, e));
+        } else {
+            scansOut.increment();
+            events.publish(GateEvent.of(GateEvent.Type.CHECK_OUT, e));
+        }
+    }
+
+    // log_entry columns are VARCHAR(255); reject before a queued write could fail on them
+    private static void checkLength(String field, String value) {
+        if (value != null && value.length() > MAX_COLUMN_LENGTH) {
+            throw new IllegalArgumentException(field + " is longer than " + MAX_COLUMN_LENGTH + " characters");
+        }
+    }
+
+    private LogEntry toggleDirect(LogEntry req) {
+        Optional<LogEntry> active = sessions.find(req.getRegNo());
+
+        // 🔁 CHECK-OUT
+        if (active.isPresent()) {
+            LogEntry e = active.get();
+            LocalDateTime now = LocalDateTime.now();
+            long seq = changes.next();
+            int updated;
+            try {
+                updated = logRepo.closeSession(e.getId(), e.getCheckInTime().minusSeconds(1),
+                        e.getCheckInTime().plusSeconds(1), now, seq);
+            } finally {
+                changes.done(seq);
+            }
+            sessions.closed(e.getRegNo(), e.getId());
+            if (updated == 1) {
+                e.setCheckOutTime(now);
+                e.setChangeSeq(seq);
+                return e;
+            }
+            // Closed elsewhere (manual checkout on another node, DB edit): treat as a new check-in
+        }
+
+        // ➕ CHECK-IN
+        req.setId(null); // generated as a time-ordered UUIDv7
+        req.setCheckInTime(LocalDateTime.now());
+        req.setCheckOutTime(null);
+        long seq = changes.next();
+        req.setChangeSeq(seq);
+        LogEntry saved;
+        try {
+            saved = logRepo.save(req);
+        } finally {
+            changes.done(seq);
+        }
+        sessions.opened(saved);
+        return saved;
+    }
+
+    // The index is authoritative here, so the DB write can be queued behind the response.
+    // The index changes before the scan is queued: a rejected or unqueued write undoes it.
+    private Toggle toggleWriteBehind(LogEntry req) {
+        Optional<LogEntry> active = sessions.find(req.getRegNo());
+
+        if (active.isPresent()) {
+            LogEntry e = active.get();
+            e.setCheckOutTime(LocalDateTime.now());
+            e.setChangeSeq(changes.next());
+            sessions.closed(e.getRegNo(), e.getId());
+            return new Toggle(e, writeBehind.close(e));
+        }
+
+        req.setId(UuidV7.next());
+        req.setCheckInTime(LocalDateTime.now());
+        req.setCheckOutTime(null);
+        req.setChangeSeq(changes.next());
+        sessions.opened(req);
+        return new Toggle(req, writeBehind.insert(req));
+    }
+
+    /** Makes every acknowledged scan visible in log_entry before a bulk DB operation. */
+    public void flushPending() {
+        writeBehind.flush();
+    }
+
+    public LogEntry checkout(UUID id) {
+        writeBehind.flush();
+        LogEntry e = logRepo.findById(id).orElseThrow();
+        LogEntry closed = locks.withLock(e.getRegNo(), () -> {
+            e.setCheckOutTime(LocalDateTime.now());
+            long seq = changes.next();
+            e.setChangeSeq(seq);
+            try {
+                LogEntry saved = logRepo.save(e);
+                sessions.closed(saved.getRegNo(), saved.getId());
+                return saved;
+            } finally {
+                changes.done(seq);
+            }
+        });
+        events.publish(GateEvent.of(GateEvent.Type.CHECK_OUT, closed));
+        return closed;
+    }
+
+    /** Closes every open session with one UPDATE; returns how many were closed. */
+    public int checkoutAll() {
+        int closed = locks.withAllLocks(() -> {
+            writeBehind.flush();
+            long seq = changes.next();
+            try {
+                int n = logRepo.closeAllSessions(LocalDateTime.now(), seq);
+                sessions.clear();
+                return n;
+            } finally {
+                changes.done(seq);
+            }
+        });
+        events.publish(GateEvent.count(GateEvent.Type.CHECKOUT_ALL, null, closed));
+        return closed;
+    }
+
+    /** After a bulk resolution: fills in open unknown sessions and announces the change. */
+    public void unknownsResolved(int entries) {
+        List<String> unknown = sessions.snapshot().stream()
+                .filter(open -> open.getName() == null)
+                .map(LogEntry::getRegNo)
+                .toList();
+        profiles.lookupAll(unknown).values().forEach(p ->
+                sessions.resolved(p.getRegNo(), p.getName(), p.getDepartment(), p.getUserType()));
+        events.publish(GateEvent.count(GateEvent.Type.UNKNOWN_RESOLVED, null, entries));
+    }
+
+    /** Announces that the unknown entries of {@code regNo} now carry a profile. */
+    public void unknownResolved(String regNo, String name, String department, String userType, int entries) {
+        sessions.resolved(regNo, name, department, userType);
+        events.publish(GateEvent.count(GateEvent.Type.UNKNOWN_RESOLVED, regNo, entries));
+    }
+}
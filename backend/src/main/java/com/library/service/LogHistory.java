@@ -0,0 +1,68 @@
+package com.library.service;
+
+import com.library.archive.LogArchive;
+import com.library.dto.LogEntryFilter;
+import com.library.dto.LogEntryPage;
+import com.library.entity.LogEntry;
+import com.library.repository.LogEntryQueries;
+import com.library.repository.LogEntryQueries.Cursor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Report queries over live log_entry rows plus the compressed archive, so moving old
+ * months out of MySQL does not change what the Reports screen returns.
+ */
+@Service
+public class LogHistory {
+
+    private final LogEntryQueries logQueries;
+    private final LogArchive archive;
+
+    public LogHistory(LogEntryQueries logQueries, LogArchive archive) {
+        this.logQueries = logQueries;
+        this.archive = archive;
+    }
+
+    /** Both sources are read from the same cursor and merged, so the page order matches a single table. */
+    public LogEntryPage page(LogEntryFilter filter, String after, int limit) {
+        LogEntryPage live = logQueries.page(filter, after, limit);
+        if (archive.isEmpty()) return live;
+
+        Cursor cursor = after == null || after.isBlank() ? null : Cursor.decode(after);
+        List<LogEntry> old = archive.newest(filter, cursor, limit + 1);
+        if (old.isEmpty()) return live;
+
+        List<LogEntry> merged = new ArrayList<>(live.getEntries());
+        merged.addAll(old);
+        merged.sort(LogArchive.NEWEST_FIRST);
+        if (live.getNext() == null && merged.size() <= limit) return new LogEntryPage(merged, null);
+
+        List<LogEntry> entries = new ArrayList<>(merged.subList(0, Math.min(limit, merged.size())));
+        LogEntry last = entries.get(entries.size() - 1);
+        return new LogEntryPage(entries, new Cursor(last.getCheckInTime(), last.getId()).encode());
+    }
+
+    /** Matching rows in both sources, counting no further than {@code cap}. */
+    public long count(LogEntryFilter filter, long cap) {
+        long live = logQueries.count(filter, cap);
+        if (live >= cap || archive.isEmpty()) return live;
+        return Math.min(cap, live + archive.count(filter));
+    }
+
+    /** Department -> user type -> matching rows, for the Reports usage summary. */
+    public Map<String, Map<String, Long>> summary(LogEntryFilter filter) {
+        Map<String, Map<String, Long>> summary = logQueries.summary(filter);
+        archive.forEachNewestFirst(filter, e -> LogEntryQueries.addTo(summary, e.getDepartment(), e.getUserType(), 1));
+        return summary;
+    }
+
+    /** Archived rows only, newest first; live rows are streamed straight from JDBC. */
+    public void forEachArchived(LogEntryFilter filter, Consumer<LogEntry> action) {
+        archive.forEachNewestFirst(filter, action);
+    }
+}
@@ -0,0 +1,123 @@
+package com.library.service;
+
+import com.library.dto.UserProfile;
+import com.library.repository.PersonDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of regNo -> profile in front of the {@link PersonDirectory}.
+ * Misses are cached too, so repeated scans of an unknown card stay off the DB.
+ * Every master-data write must call {@link #evict(String)}; inside a transaction the
+ * eviction happens after commit, so a lookup racing the write cannot re-cache the old row.
+ */
+@Component
+public class MasterDataCache {
+
+    private final PersonDirectory directory;
+    private final Map<String, Optional<UserProfile>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Bumped on every write so a load racing with an eviction never re-caches stale data
+    private final AtomicLong writeGeneration = new AtomicLong();
+
+    public MasterDataCache(PersonDirectory directory,
+                           @Value("${library.cache.lookup.max-size:20000}") int maxSize) {
+        this.directory = directory;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Optional<UserProfile>> eldest) {
+                if (size() <= maxSize) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    public Optional<UserProfile> lookup(String regNo) {
+        synchronized (entries) {
+            Optional<UserProfile> cached = entries.get(regNo);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        long generation = writeGeneration.get();
+        Optional<UserProfile> loaded = directory.resolve(regNo);
+        synchronized (entries) {
+            if (writeGeneration.get() == generation) entries.put(regNo, loaded);
+        }
+        return loaded;
+    }
+
+    /** Profiles for many regNos; cache misses are resolved together in one directory query. Unknown ones are absent. */
+    public Map<String, UserProfile> lookupAll(Collection<String> regNos) {
+        Map<String, UserProfile> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        synchronized (entries) {
+            for (String regNo : new LinkedHashSet<>(regNos)) {
+                Optional<UserProfile> cached = entries.get(regNo);
+                if (cached == null) {
+                    missing.add(regNo);
+                } else {
+                    hits.increment();
+                    cached.ifPresent(p -> found.put(regNo, p));
+                }
+            }
+        }
+        if (missing.isEmpty()) return found;
+        misses.add(missing.size());
+        long generation = writeGeneration.get();
+        Map<String, UserProfile> loaded = directory.resolveAll(missing);
+        synchronized (entries) {
+            if (writeGeneration.get() == generation) {
+                for (String regNo : missing) entries.put(regNo, Optional.ofNullable(loaded.get(regNo)));
+            }
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    public void evict(String regNo) {
+        evictAll(List.of(regNo));
+    }
+
+    public void evictAll(Iterable<String> regNos) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(regNos);
+            return;
+        }
+        // Until the commit, lookups still read the old row; evicting now would let them cache it again
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictNow(regNos);
+            }
+        });
+    }
+
+    private void evictNow(Iterable<String> regNos) {
+        synchronized (entries) {
+            writeGeneration.incrementAndGet();
+            regNos.forEach(entries::remove);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        long h = hits.sum(), m = misses.sum();
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return Map.of("hits", h, "misses", m, "evictions", evictions.sum(), "size", (long) size);
+    }
+}
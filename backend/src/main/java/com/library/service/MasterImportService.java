@@ -0,0 +1,193 @@
+package com.library.service;
+
+import com.library.dto.ImportResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk master-data import from CSV ({@code regNo,name,department[,userType]}).
+ * The stream is read in chunks; each chunk is parsed and validated in parallel and
+ * then upserted with batched INSERT ... ON DUPLICATE KEY UPDATE in its own transaction.
+ * If a chunk is rejected by the database it is retried row by row, so the offending
+ * rows come back as per-line errors instead of failing the import.
+ * Without a userType column, IDs starting with a letter are staff (same rule as the UI).
+ */
+@Service
+public class MasterImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String UPSERT_STUDENT =
+            "INSERT INTO student (reg_no, name, department) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), department = VALUES(department)";
+    private static final String UPSERT_STAFF =
+            "INSERT INTO staff (reg_no, name, department) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), department = VALUES(department)";
+
+    private static final Set<String> ID_COLUMNS = Set.of(
+            "regno", "regnumber", "registrationno", "registrationnumber",
+            "staffid", "staffno", "studentid", "studentno", "id");
+
+    private record Line(int number, String text) {}
+
+    private record Row(int line, String regNo, String name, String department, boolean staff, String error) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final MasterDataCache profiles;
+    private final int chunkSize;
+
+    public MasterImportService(JdbcTemplate jdbc, TransactionTemplate tx, MasterDataCache profiles,
+                               @Value("${library.import.chunk-size:5000}") int chunkSize) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.profiles = profiles;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportResult importCsv(InputStream in) throws IOException {
+        ImportResult result = new ImportResult();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<Line> chunk = new ArrayList<>(chunkSize);
+        String text;
+        int number = 0;
+        while ((text = reader.readLine()) != null) {
+            number++;
+            if (text.isBlank()) continue;
+            if (number == 1 && isHeader(text)) continue;
+            chunk.add(new Line(number, text));
+            if (chunk.size() == chunkSize) {
+                write(parse(chunk), result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) write(parse(chunk), result);
+        return result;
+    }
+
+    private List<Row> parse(List<Line> lines) {
+        return IntStream.range(0, lines.size()).parallel()
+                .mapToObj(i -> parseLine(lines.get(i)))
+                .toList();
+    }
+
+    private void write(List<Row> rows, ImportResult result) {
+        List<Row> valid = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            result.setRows(result.getRows() + 1);
+            if (r.error() != null) {
+                reject(result, r, r.error());
+            } else {
+                valid.add(r);
+            }
+        }
+        if (valid.isEmpty()) return;
+        try {
+            List<Object[]> students = new ArrayList<>();
+            List<Object[]> staff = new ArrayList<>();
+            for (Row r : valid) {
+                (r.staff() ? staff : students).add(new Object[]{r.regNo(), r.name(), r.department()});
+            }
+            tx.executeWithoutResult(s -> {
+                if (!students.isEmpty()) jdbc.batchUpdate(UPSERT_STUDENT, students);
+                if (!staff.isEmpty()) jdbc.batchUpdate(UPSERT_STAFF, staff);
+            });
+            result.setStudents(result.getStudents() + students.size());
+            result.setStaff(result.getStaff() + staff.size());
+        } catch (DataAccessException chunkFailed) {
+            // the chunk rolled back as a whole: retry row by row so one bad row is
+            // reported against its line instead of failing the whole import
+            for (Row r : valid) {
+                try {
+                    jdbc.update(r.staff() ? UPSERT_STAFF : UPSERT_STUDENT, r.regNo(), r.name(), r.department());
+                    if (r.staff()) result.setStaff(result.getStaff() + 1);
+                    else result.setStudents(result.getStudents() + 1);
+                } catch (DataAccessException ex) {
+                    reject(result, r, "Rejected by database: " + ex.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        profiles.evictAll(valid.stream().map(Row::regNo).toList());
+    }
+
+    private static void reject(ImportResult result, Row r, String error) {
+        result.setErrorCount(result.getErrorCount() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new ImportResult.RowError(r.line(), r.regNo(), error));
+        }
+    }
+
+    private static Row parseLine(Line line) {
+        List<String> f = splitCsv(line.text());
+        String regNo = f.size() > 0 ? f.get(0) : "";
+        String name = f.size() > 1 ? f.get(1) : "";
+        String dept = f.size() > 2 ? f.get(2) : "";
+        String type = f.size() > 3 ? f.get(3).toUpperCase() : "";
+
+        String error = null;
+        if (regNo.isEmpty()) error = "Missing regNo";
+        else if (regNo.length() > GateService.MAX_COLUMN_LENGTH) error = "regNo too long";
+        else if (name.isEmpty()) error = "Missing name";
+        else if (name.length() > GateService.MAX_COLUMN_LENGTH) error = "name too long";
+        else if (dept.isEmpty()) error = "Missing department";
+        else if (dept.length() > GateService.MAX_COLUMN_LENGTH) error = "department too long";
+        else if (!type.isEmpty() && !type.equals("STUDENT") && !type.equals("STAFF")) error = "Unknown userType " + type;
+
+        boolean staff = type.isEmpty() ? Character.isLetter(regNo.isEmpty() ? '0' : regNo.charAt(0)) : type.equals("STAFF");
+        return new Row(line.number(), regNo, name, dept, staff, error);
+    }
+
+    // "regNo,name,department", "Reg No,Name,..." etc.: matched on known column names so an
+    // all-letter ID on line 1 is imported (or reported) like any other row
+    private static boolean isHeader(String line) {
+        List<String> f = splitCsv(line);
+        return ID_COLUMNS.contains(columnKey(f.get(0))) || (f.size() > 1 && columnKey(f.get(1)).equals("name"));
+    }
+
+    private static String columnKey(String field) {
+        return field.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+    }
+
+    /** Splits one CSV line, honouring double-quoted fields; values are trimmed. */
+    static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>(4);
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(cur.toString().trim());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        out.add(cur.toString().trim());
+        return out;
+    }
+}
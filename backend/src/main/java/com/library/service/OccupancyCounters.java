@@ -0,0 +1,109 @@
+package com.library.service;
+
+import com.library.dto.Occupancy;
+import com.library.entity.LogEntry;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live head counts (total, per department, per user type) kept next to
+ * {@link ActiveSessionIndex}, which calls in whenever a session opens, closes or is
+ * resolved. Reading them never touches the database. Cumulative check-in/out totals
+ * (since startup) feed the per-minute rates in {@link OccupancySampler}.
+ */
+@Component
+public class OccupancyCounters {
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder checkIns = new LongAdder();
+    private final LongAdder checkOuts = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> byDepartment = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongAdder> byUserType = new ConcurrentHashMap<>();
+
+    void add(LogEntry e) {
+        adjust(e, 1);
+    }
+
+    void remove(LogEntry e) {
+        adjust(e, -1);
+    }
+
+    void checkedIn(LogEntry e) {
+        adjust(e, 1);
+        checkIns.increment();
+    }
+
+    void checkedOut(LogEntry e) {
+        adjust(e, -1);
+        checkOuts.increment();
+    }
+
+    /** Reverts {@link #checkedIn} for a session whose row was never written. */
+    void undoCheckIn(LogEntry e) {
+        adjust(e, -1);
+        checkIns.decrement();
+    }
+
+    /** Reverts {@link #checkedOut} for a check-out that was never written. */
+    void undoCheckOut(LogEntry e) {
+        adjust(e, 1);
+        checkOuts.decrement();
+    }
+
+    /** Everyone was checked out at once. */
+    void checkedOutAll() {
+        checkOuts.add(total.sum());
+        reset();
+    }
+
+    void reset() {
+        total.reset();
+        byDepartment.clear();
+        byUserType.clear();
+    }
+
+    public long total() {
+        return total.sum();
+    }
+
+    public long checkIns() {
+        return checkIns.sum();
+    }
+
+    public long checkOuts() {
+        return checkOuts.sum();
+    }
+
+    public Occupancy snapshot() {
+        return new Occupancy(total.sum(), sums(byDepartment), sums(byUserType), LocalDateTime.now());
+    }
+
+    private void adjust(LogEntry e, long delta) {
+        total.add(delta);
+        byDepartment.computeIfAbsent(departmentOf(e), k -> new LongAdder()).add(delta);
+        byUserType.computeIfAbsent(userTypeOf(e), k -> new LongAdder()).add(delta);
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> out = new TreeMap<>();
+        counters.forEach((k, v) -> {
+            long n = v.sum();
+            if (n > 0) out.put(k, n);
+        });
+        return out;
+    }
+
+    // Same buckets as the visit rollups
+    private static String departmentOf(LogEntry e) {
+        return e.getDepartment() != null ? e.getDepartment() : "Unknown";
+    }
+
+    private static String userTypeOf(LogEntry e) {
+        return e.getUserType() != null ? e.getUserType() : "UNKNOWN";
+    }
+}
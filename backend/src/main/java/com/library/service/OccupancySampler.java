@@ -0,0 +1,195 @@
+package com.library.service;
+
+import com.library.archive.SampleBlocks;
+import com.library.archive.SampleBlocks.Sample;
+import com.library.dto.OccupancySeries;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Records occupancy and check-in/out counts once a minute.
+ *
+ * The recent {@code library.occupancy.window-minutes} live in a ring of primitive
+ * arrays; every sample is also buffered and appended to a per-day
+ * {@link SampleBlocks} file under {@code library.occupancy.dir} once an hour (and on
+ * shutdown), which serves older ranges.
+ */
+@Service
+public class OccupancySampler {
+
+    private static final Logger log = LoggerFactory.getLogger(OccupancySampler.class);
+    private static final int BLOCK_SAMPLES = 60;
+    private static final long MAX_RANGE_MINUTES = 31L * 24 * 60;
+
+    private final OccupancyCounters counters;
+    private final Path dir;
+
+    // Ring of the most recent samples; minute = minutes since 1970-01-01T00:00 local time
+    private final long[] minutes;
+    private final int[] occupancy;
+    private final int[] entries;
+    private final int[] exits;
+    private int head;      // next slot to write
+    private int size;
+
+    // Samples not yet written to disk (all from one day)
+    private final long[] pendingMinutes = new long[BLOCK_SAMPLES];
+    private final int[] pendingOccupancy = new int[BLOCK_SAMPLES];
+    private final int[] pendingEntries = new int[BLOCK_SAMPLES];
+    private final int[] pendingExits = new int[BLOCK_SAMPLES];
+    private int pending;
+
+    private long lastCheckIns;
+    private long lastCheckOuts;
+
+    public OccupancySampler(OccupancyCounters counters,
+                            @Value("${library.occupancy.dir:./occupancy}") String dir,
+                            @Value("${library.occupancy.window-minutes:1440}") int windowMinutes) {
+        this.counters = counters;
+        this.dir = Path.of(dir);
+        this.minutes = new long[windowMinutes];
+        this.occupancy = new int[windowMinutes];
+        this.entries = new int[windowMinutes];
+        this.exits = new int[windowMinutes];
+    }
+
+    @Scheduled(cron = "${library.occupancy.sample-cron:0 * * * * *}")
+    public synchronized void sample() {
+        long minute = minuteOf(LocalDateTime.now());
+        if (size > 0 && minutes[(head - 1 + minutes.length) % minutes.length] >= minute) return;
+
+        long in = counters.checkIns();
+        long out = counters.checkOuts();
+        int occ = (int) counters.total();
+        int entered = (int) (in - lastCheckIns);
+        int left = (int) (out - lastCheckOuts);
+        lastCheckIns = in;
+        lastCheckOuts = out;
+
+        minutes[head] = minute;
+        occupancy[head] = occ;
+        entries[head] = entered;
+        exits[head] = left;
+        head = (head + 1) % minutes.length;
+        if (size < minutes.length) size++;
+
+        if (pending > 0 && dayOf(pendingMinutes[0]) != dayOf(minute)) flush();
+        pendingMinutes[pending] = minute;
+        pendingOccupancy[pending] = occ;
+        pendingEntries[pending] = entered;
+        pendingExits[pending] = left;
+        pending++;
+        if (pending == BLOCK_SAMPLES || (minute + 1) % 60 == 0) flush();
+    }
+
+    @PreDestroy
+    public synchronized void flush() {
+        if (pending == 0) return;
+        try {
+            SampleBlocks.append(fileFor(dayOf(pendingMinutes[0])), pendingMinutes, pendingOccupancy,
+                    pendingEntries, pendingExits, pending);
+        } catch (IOException ex) {
+            // Keep sampling; the ring still covers the recent window
+            log.error("Failed to persist {} occupancy samples", pending, ex);
+        }
+        pending = 0;
+    }
+
+    /** Samples with from &lt;= time &lt; to, oldest first. The ring wins over disk for overlapping minutes. */
+    public OccupancySeries series(LocalDateTime from, LocalDateTime to) {
+        long lo = minuteOf(from);
+        long hi = minuteOf(to);
+        if (hi <= lo) throw new IllegalArgumentException("'to' must be after 'from'");
+        if (hi - lo > MAX_RANGE_MINUTES) throw new IllegalArgumentException("Range is limited to 31 days");
+
+        TreeMap<Long, Sample> samples = new TreeMap<>();
+        long ringStart;
+        synchronized (this) {
+            ringStart = size == 0 ? Long.MAX_VALUE : minutes[(head - size + minutes.length) % minutes.length];
+        }
+        if (lo < ringStart) {
+            for (LocalDate day = dayOf(lo); !day.isAfter(dayOf(Math.min(hi, ringStart) - 1)); day = day.plusDays(1)) {
+                try {
+                    SampleBlocks.read(fileFor(day), s -> {
+                        if (s.minute() >= lo && s.minute() < hi) samples.put(s.minute(), s);
+                    });
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Failed to read occupancy samples for " + day, ex);
+                }
+            }
+        }
+        synchronized (this) {
+            for (int i = 0; i < size; i++) {
+                int slot = (head - size + i + minutes.length) % minutes.length;
+                if (minutes[slot] >= lo && minutes[slot] < hi) {
+                    samples.put(minutes[slot], new Sample(minutes[slot], occupancy[slot], entries[slot], exits[slot]));
+                }
+            }
+        }
+        return toSeries(from, to, samples);
+    }
+
+    private static OccupancySeries toSeries(LocalDateTime from, LocalDateTime to, TreeMap<Long, Sample> samples) {
+        int n = samples.size();
+        List<LocalDateTime> time = new ArrayList<>(n);
+        int[] occ = new int[n];
+        int[] in = new int[n];
+        int[] out = new int[n];
+        int peak = -1;
+        LocalDateTime peakTime = null;
+        int i = 0;
+        for (Sample s : samples.values()) {
+            LocalDateTime t = timeOf(s.minute());
+            time.add(t);
+            occ[i] = s.occupancy();
+            in[i] = s.entries();
+            out[i] = s.exits();
+            if (s.occupancy() > peak) {
+                peak = s.occupancy();
+                peakTime = t;
+            }
+            i++;
+        }
+        OccupancySeries series = new OccupancySeries();
+        series.setFrom(from);
+        series.setTo(to);
+        series.setTime(time);
+        series.setOccupancy(occ);
+        series.setEntries(in);
+        series.setExits(out);
+        series.setPeak(Math.max(peak, 0));
+        series.setPeakTime(peakTime);
+        return series;
+    }
+
+    private Path fileFor(LocalDate day) {
+        return dir.resolve("occupancy-" + day + ".blk");
+    }
+
+    private static long minuteOf(LocalDateTime t) {
+        return t.truncatedTo(ChronoUnit.MINUTES).toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime timeOf(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static LocalDate dayOf(long minute) {
+        return timeOf(minute).toLocalDate();
+    }
+}
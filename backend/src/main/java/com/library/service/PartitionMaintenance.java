@@ -0,0 +1,165 @@
+package com.library.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps log_entry partitioned by check-in month (pYYYYMM, plus p_history for very
+ * old rows and the pmax catch-all). The initial split is done by migration V7; this
+ * runs on startup and nightly:
+ * <ul>
+ *   <li>splits an empty pmax so partitions exist {@code library.partitions.months-ahead} months ahead;</li>
+ *   <li>if {@code library.partitions.detach-after-months} &gt; 0, swaps older monthly
+ *       partitions out into standalone log_entry_pYYYYMM tables (cold storage) and
+ *       drops them from the live table. p_history goes first, into
+ *       log_entry_p_history_YYYYMM named after the month it ends before.</li>
+ * </ul>
+ * Queries that filter on check_in_time (reports, stats, session close) are pruned
+ * to the matching partitions by MySQL. Detached months are no longer queried at all:
+ * reports and exports exclude their rows, and the visit rollups for those days are
+ * frozen (see {@link #detachedHorizon()}). Use the log archive instead when old rows
+ * must stay reportable.
+ */
+@Service
+public class PartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionMaintenance.class);
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter HISTORY_NAME = DateTimeFormatter.ofPattern("'p_history_'yyyyMM");
+
+    private final JdbcTemplate jdbc;
+    private final int monthsAhead;
+    private final int detachAfterMonths;
+
+    public PartitionMaintenance(JdbcTemplate jdbc,
+                                @Value("${library.partitions.months-ahead:3}") int monthsAhead,
+                                @Value("${library.partitions.detach-after-months:0}") int detachAfterMonths) {
+        this.jdbc = jdbc;
+        this.monthsAhead = monthsAhead;
+        this.detachAfterMonths = detachAfterMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${library.partitions.cron:0 0 1 * * *}")
+    public synchronized void maintain() {
+        try {
+            if (partitions().isEmpty()) {
+                log.warn("log_entry is not partitioned; skipping partition maintenance");
+                return;
+            }
+            addAhead();
+            if (detachAfterMonths > 0) detachOld();
+        } catch (RuntimeException ex) {
+            log.error("Partition maintenance failed", ex);
+        }
+    }
+
+    /** Partition name -> upper bound (null for MAXVALUE), in order. */
+    private List<Map<String, Object>> partitions() {
+        return jdbc.queryForList(
+                "SELECT partition_name AS name, partition_description AS bound FROM information_schema.partitions " +
+                "WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND partition_name IS NOT NULL " +
+                "ORDER BY partition_ordinal_position");
+    }
+
+    private void addAhead() {
+        List<Map<String, Object>> parts = partitions();
+        if (parts.size() < 2) {
+            // The initial split rewrites every row, so it belongs to migration V7, not a running app
+            log.warn("log_entry still has only pmax; skipping partition maintenance until migration V7 has run");
+            return;
+        }
+        // Last bounded partition ends where the next month must start
+        YearMonth start = YearMonth.from(parseBound(parts.get(parts.size() - 2).get("bound")));
+        YearMonth end = YearMonth.now().plusMonths(monthsAhead + 1L);
+        List<String> defs = monthlyPartitions(start, end);
+        if (defs.isEmpty()) return;
+        // Reorganizing copies whatever pmax holds; only do it while that is nothing
+        if (!jdbc.queryForList("SELECT 1 FROM log_entry PARTITION (pmax) LIMIT 1").isEmpty()) {
+            log.warn("log_entry partition pmax is not empty; not adding partitions from {} online", start);
+            return;
+        }
+        defs.add("PARTITION pmax VALUES LESS THAN (MAXVALUE)");
+        jdbc.execute("ALTER TABLE log_entry REORGANIZE PARTITION pmax INTO (" + String.join(", ", defs) + ")");
+        log.info("Added {} log_entry partitions up to {}", defs.size() - 1, end);
+    }
+
+    /** Partition definitions for each month in [start, end). */
+    public static List<String> monthlyPartitions(YearMonth start, YearMonth end) {
+        List<String> defs = new ArrayList<>();
+        for (YearMonth m = start; m.isBefore(end); m = m.plusMonths(1)) {
+            defs.add("PARTITION " + m.atDay(1).format(NAME) + " VALUES LESS THAN ('" + m.plusMonths(1).atDay(1) + "')");
+        }
+        return defs;
+    }
+
+    private void detachOld() {
+        LocalDate cutoff = YearMonth.now().minusMonths(detachAfterMonths).atDay(1);
+        for (Map<String, Object> p : partitions()) {
+            String name = (String) p.get("name");
+            if (!name.equals("p_history") && !name.matches("p\\d{6}")) continue;
+            LocalDate bound = parseBound(p.get("bound"));
+            if (bound.isAfter(cutoff)) break;
+            String cold = "log_entry_" + (name.equals("p_history") ? bound.format(HISTORY_NAME) : name);
+            if (tableExists(cold)) {
+                // An earlier run exchanged but did not drop; only finish if nothing is left behind
+                Long left = jdbc.queryForObject("SELECT COUNT(*) FROM log_entry PARTITION (" + name + ")", Long.class);
+                if (left != null && left > 0) {
+                    log.warn("{} already exists and partition {} is not empty; leaving both alone", cold, name);
+                    continue;
+                }
+            } else {
+                jdbc.execute("CREATE TABLE " + cold + " LIKE log_entry");
+                jdbc.execute("ALTER TABLE " + cold + " REMOVE PARTITIONING");
+                jdbc.execute("ALTER TABLE log_entry EXCHANGE PARTITION " + name + " WITH TABLE " + cold);
+            }
+            jdbc.execute("ALTER TABLE log_entry DROP PARTITION " + name);
+            log.info("Detached log_entry partition {} into {}", name, cold);
+        }
+    }
+
+    /** First day not covered by any detached log_entry_p* table; null if none were detached. */
+    public LocalDate detachedHorizon() {
+        List<String> tables = jdbc.queryForList("SELECT table_name FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name LIKE 'log\\_entry\\_p%'", String.class);
+        return tables.stream()
+                .map(PartitionMaintenance::detachedUntil)
+                .filter(Objects::nonNull)
+                .max(LocalDate::compareTo)
+                .orElse(null);
+    }
+
+    // log_entry_pYYYYMM holds that month; log_entry_p_history_YYYYMM holds everything before it
+    private static LocalDate detachedUntil(String table) {
+        String name = table.substring("log_entry_".length());
+        if (name.matches("p\\d{6}")) return YearMonth.parse(name, NAME).plusMonths(1).atDay(1);
+        if (name.matches("p_history_\\d{6}")) return YearMonth.parse(name, HISTORY_NAME).atDay(1);
+        return null;
+    }
+
+    private boolean tableExists(String table) {
+        Long n = jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = ?", Long.class, table);
+        return n != null && n > 0;
+    }
+
+    // RANGE COLUMNS bounds come back quoted, e.g. '2025-03-01 00:00:00'
+    private static LocalDate parseBound(Object description) {
+        String s = String.valueOf(description).replace("'", "").trim();
+        return LocalDate.parse(s.substring(0, 10));
+    }
+}
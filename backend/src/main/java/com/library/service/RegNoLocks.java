@@ -0,0 +1,56 @@
+package com.library.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks keyed by regNo. Two scans of the same card serialize; scans of
+ * different cards only meet if they hash to the same stripe, and with the default
+ * 1024 stripes that is rare enough not to matter at gate rates.
+ */
+@Component
+public class RegNoLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public RegNoLocks(@Value("${library.scan.lock-stripes:1024}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) stripes[i] = new ReentrantLock();
+        this.mask = size - 1;
+    }
+
+    public <T> T withLock(String regNo, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(regNo);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Runs {@code action} with every stripe held, e.g. to close all sessions at once. */
+    public <T> T withAllLocks(Supplier<T> action) {
+        int held = 0;
+        try {
+            for (ReentrantLock lock : stripes) {
+                lock.lock();
+                held++;
+            }
+            return action.get();
+        } finally {
+            for (int i = held - 1; i >= 0; i--) stripes[i].unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(String regNo) {
+        int h = regNo == null ? 0 : regNo.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & mask];
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.service;
+
+import com.library.dto.LogEntryFilter;
+import com.library.entity.LogEntry;
+import com.library.repository.LogEntryQueries;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes report rows as CSV straight from a streaming JDBC result set, so memory
+ * stays flat no matter how many rows match. Columns match the Reports screen export.
+ */
+@Service
+public class ReportCsvExporter {
+
+    private static final String HEADER = "Entry ID,Registration No,Full Name,Department,User Type,Date,In Time,Out Time";
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final LogEntryQueries logQueries;
+    private final LogHistory history;
+
+    public ReportCsvExporter(LogEntryQueries logQueries, LogHistory history) {
+        this.logQueries = logQueries;
+        this.history = history;
+    }
+
+    public void export(LogEntryFilter filter, OutputStream out) throws IOException {
+        BufferedWriter w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        w.write(HEADER);
+        w.write('\n');
+        try {
+            logQueries.stream(filter, rs -> {
+                try {
+                    row(w, LogEntryQueries.ROW_MAPPER.mapRow(rs, 0));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            // Archived months follow the live rows (each part newest first)
+            history.forEachArchived(filter, e -> {
+                try {
+                    row(w, e);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause(); // client went away
+        }
+        w.flush();
+    }
+
+    private static void row(BufferedWriter w, LogEntry e) throws IOException {
+        LocalDateTime in = e.getCheckInTime();
+        field(w, String.valueOf(e.getId()), ',');
+        field(w, e.getRegNo(), ',');
+        field(w, e.getName() != null ? e.getName() : "Unknown", ',');
+        field(w, e.getDepartment(), ',');
+        field(w, e.getUserType(), ',');
+        field(w, in != null ? in.format(DATE) : "", ',');
+        field(w, in != null ? in.format(TIME) : "---", ',');
+        field(w, e.getCheckOutTime() != null ? e.getCheckOutTime().format(TIME) : "---", '\n');
+    }
+
+    private static void field(BufferedWriter w, String value, char end) throws IOException {
+        if (value != null) {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (quote) {
+                w.write('"');
+                w.write(value.replace("\"", "\"\""));
+                w.write('"');
+            } else {
+                w.write(value);
+            }
+        }
+        w.write(end);
+    }
+}
@@ -0,0 +1,324 @@
+package com.library.service;
+
+import com.library.entity.LogEntry;
+import com.library.entity.UuidV7;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Optional write-behind path for gate scans. Scans are queued and a single writer
+ * thread commits them to log_entry in batched JDBC statements, so a rush of scans
+ * shares one commit instead of paying one each.
+ *
+ * {@link #insert} and {@link #close} return a future that completes when the scan's
+ * batch commits and fails when the database rejects it. Durability is chosen with
+ * {@code library.scan.write-behind.durability}: under ASYNC {@link #awaitCommit} returns
+ * at once; under GROUP_COMMIT it waits (up to {@code commit-timeout-ms}) for the commit.
+ * A scan still queued at the timeout is acknowledged anyway: it stays in the queue and
+ * is committed (or rejected) like an ASYNC one.
+ *
+ * Callers update the {@link ActiveSessionIndex} before queueing; a scan that cannot
+ * be queued or is rejected by the database has that change undone here.
+ *
+ * Transient failures (lost connection, deadlock, lock timeout) retry the batch, once a
+ * second up to {@code max-retries} times, after which its scans are rejected. Any other
+ * failure splits the batch and writes the scans one at a time, so a single bad row is
+ * rejected (and its session index change undone) without holding up the rest.
+ */
+@Component
+public class ScanWriteBehind {
+
+    public enum Durability { ASYNC, GROUP_COMMIT }
+
+    private enum Kind { INSERT, CLOSE, BARRIER }
+
+    private record Pending(Kind kind, LogEntry entry, CompletableFuture<Void> done) {}
+
+    private static final Logger log = LoggerFactory.getLogger(ScanWriteBehind.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO log_entry (id, reg_no, name, department, user_type, check_in_time, check_out_time, change_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CLOSE_SQL =
+            "UPDATE log_entry SET check_out_time = ?, change_seq = ? " +
+            "WHERE id = ? AND check_in_time BETWEEN ? AND ? AND check_out_time IS NULL";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ChangeSequence changes;
+    private final ActiveSessionIndex sessions;
+    private final boolean enabled;
+    private final Durability durability;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long commitTimeoutMs;
+    private final int maxRetries;
+    private final BlockingQueue<Pending> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public ScanWriteBehind(JdbcTemplate jdbc, TransactionTemplate tx, ChangeSequence changes,
+                           ActiveSessionIndex sessions,
+                           @Value("${library.scan.write-behind.enabled:false}") boolean enabled,
+                           @Value("${library.scan.write-behind.durability:ASYNC}") Durability durability,
+                           @Value("${library.scan.write-behind.queue-capacity:10000}") int queueCapacity,
+                           @Value("${library.scan.write-behind.batch-size:256}") int batchSize,
+                           @Value("${library.scan.write-behind.flush-interval-ms:5}") long flushIntervalMs,
+                           @Value("${library.scan.write-behind.offer-timeout-ms:250}") long offerTimeoutMs,
+                           @Value("${library.scan.write-behind.commit-timeout-ms:5000}") long commitTimeoutMs,
+                           @Value("${library.scan.write-behind.max-retries:30}") int maxRetries) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.changes = changes;
+        this.sessions = sessions;
+        this.enabled = enabled;
+        this.durability = durability;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.commitTimeoutMs = commitTimeoutMs;
+        this.maxRetries = maxRetries;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        running = true;
+        writer = new Thread(this::run, "scan-write-behind");
+        writer.start();
+        log.info("Scan write-behind enabled ({}, batch {}, every {} ms)", durability, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) return;
+        running = false;
+        writer.interrupt();
+        writer.join();
+        // Whatever is still queued goes out before the datasource closes
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            log.info("Flushing {} queued scans on shutdown", rest.size());
+            writeFinal(rest);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Void> insert(LogEntry e) {
+        return submit(new Pending(Kind.INSERT, ActiveSessionIndex.copyOf(e), new CompletableFuture<>()));
+    }
+
+    public CompletableFuture<Void> close(LogEntry e) {
+        return submit(new Pending(Kind.CLOSE, ActiveSessionIndex.copyOf(e), new CompletableFuture<>()));
+    }
+
+    /**
+     * Under GROUP_COMMIT, waits for a scan returned by {@link #insert}/{@link #close} to commit.
+     * Call it outside the regNo lock so a slow commit does not hold up the next tap of that card.
+     */
+    public void awaitCommit(CompletableFuture<Void> done, String regNo) {
+        if (durability != Durability.GROUP_COMMIT) return;
+        try {
+            done.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException ex) {
+            // Failing a scan that stays queued would report it lost while the writer still commits it,
+            // so only a rejection (index change already undone) fails the caller
+            log.warn("Scan for {} not committed within {} ms, acknowledging it as queued", regNo, commitTimeoutMs);
+        } catch (ExecutionException ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Scan could not be saved", ex.getCause());
+        }
+    }
+
+    /** Blocks until every scan queued before this call has been committed. */
+    public void flush() {
+        if (!enabled) return;
+        Pending barrier = new Pending(Kind.BARRIER, null, new CompletableFuture<>());
+        enqueue(barrier);
+        try {
+            barrier.done().get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for commit");
+        } catch (TimeoutException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Queued scans not yet committed, retry");
+        } catch (ExecutionException ex) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Queued scans could not be flushed", ex.getCause());
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private CompletableFuture<Void> submit(Pending p) {
+        try {
+            enqueue(p);
+        } catch (RuntimeException ex) {
+            undo(p);
+            release(p);
+            throw ex;
+        }
+        return p.done();
+    }
+
+    private void enqueue(Pending p) {
+        try {
+            if (!queue.offer(p, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Scan queue full, retry");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while queueing scan");
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Pending first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    Pending next = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException ex) {
+                // stop() drains the queue; finish the batch we were holding
+                if (!batch.isEmpty()) writeFinal(batch);
+                return;
+            }
+        }
+    }
+
+    private void writeWithRetry(List<Pending> batch) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                write(batch);
+                batch.forEach(this::committed);
+                return;
+            } catch (RuntimeException ex) {
+                if (!isTransient(ex)) {
+                    if (batch.size() == 1) {
+                        rejected(batch.get(0), ex);
+                    } else {
+                        log.warn("Write-behind batch of {} scans failed, writing them one at a time", batch.size(), ex);
+                        for (Pending p : batch) writeWithRetry(List.of(p));
+                    }
+                    return;
+                }
+                if (attempt >= maxRetries) {
+                    // Keep the writer moving: a stuck batch would fill the queue and refuse every later scan
+                    log.error("Write-behind batch of {} scans still failing after {} retries, rejecting it", batch.size(), attempt, ex);
+                    batch.forEach(p -> rejected(p, ex));
+                    return;
+                }
+                log.error("Write-behind batch of {} scans failed, will retry", batch.size(), ex);
+            }
+            if (!running) throw new InterruptedException();
+            Thread.sleep(1000);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> closes = new ArrayList<>();
+        for (Pending p : batch) {
+            LogEntry e = p.entry();
+            if (p.kind() == Kind.INSERT) {
+                inserts.add(new Object[]{UuidV7.toBytes(e.getId()), e.getRegNo(), e.getName(), e.getDepartment(),
+                        e.getUserType(), e.getCheckInTime(), e.getCheckOutTime(), e.getChangeSeq()});
+            } else if (p.kind() == Kind.CLOSE) {
+                closes.add(new Object[]{e.getCheckOutTime(), e.getChangeSeq(), UuidV7.toBytes(e.getId()),
+                        e.getCheckInTime().minusSeconds(1), e.getCheckInTime().plusSeconds(1)});
+            }
+        }
+        tx.executeWithoutResult(status -> {
+            // Inserts first: a session opened and closed inside one batch must exist before its UPDATE
+            if (!inserts.isEmpty()) jdbc.batchUpdate(INSERT_SQL, inserts);
+            if (!closes.isEmpty()) jdbc.batchUpdate(CLOSE_SQL, closes);
+        });
+    }
+
+    // Connection loss, deadlocks and lock timeouts succeed on retry; anything else (constraint and
+    // data errors, bugs such as an NPE while binding) never will
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private void committed(Pending p) {
+        release(p);
+        p.done().complete(null);
+    }
+
+    /** The row can never be written: undo what the scan did to the session index and fail its caller. */
+    private void rejected(Pending p, RuntimeException ex) {
+        log.error("Dropping write-behind {} for {}: {}", p.kind(),
+                p.entry() != null ? p.entry().getRegNo() : null, ex.getMessage());
+        undo(p);
+        release(p);
+        p.done().completeExceptionally(ex);
+    }
+
+    private void undo(Pending p) {
+        if (p.kind() == Kind.INSERT) sessions.discard(p.entry());
+        else if (p.kind() == Kind.CLOSE) sessions.reopen(p.entry());
+    }
+
+    private void release(Pending p) {
+        if (p.entry() != null && p.entry().getChangeSeq() != null) changes.done(p.entry().getChangeSeq());
+    }
+
+    private void writeFinal(List<Pending> batch) {
+        try {
+            write(batch);
+            batch.forEach(this::committed);
+            return;
+        } catch (RuntimeException ex) {
+            if (isTransient(ex)) {
+                log.error("Dropping {} scans that could not be written on shutdown", batch.size(), ex);
+                batch.forEach(this::release);
+                batch.forEach(p -> p.done().completeExceptionally(new IllegalStateException("Shutdown before commit")));
+                return;
+            }
+        }
+        for (Pending p : batch) {
+            try {
+                write(List.of(p));
+                committed(p);
+            } catch (RuntimeException ex) {
+                rejected(p, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.library.service;
+
+import com.library.archive.LogArchive;
+import com.library.dto.VisitStats;
+import com.library.entity.LogEntry;
+import com.library.repository.RollupRepository;
+import com.library.repository.StatsQueries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the daily visit rollups and answers stats queries from them.
+ *
+ * Check-ins are counted in memory and upserted every {@code library.rollup.flush-ms};
+ * a nightly job then recomputes recent days from log_entry to correct any drift
+ * (unknowns resolved later, failed flushes, manual DB edits). Stats for past days
+ * come from the rollups and today is always read live, so a one-year query touches
+ * the summary tables plus a single day of log_entry.
+ *
+ * On startup, past days that have entries but no rollup rows (first deploy, or a
+ * restored database) are backfilled a chunk of {@code backfill-chunk-days} at a time.
+ */
+@Service
+public class VisitRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitRollupService.class);
+
+    private record VisitKey(LocalDate day, int hour, String department, String userType) {}
+
+    private record VisitorKey(LocalDate day, String regNo) {}
+
+    private final RollupRepository rollups;
+    private final StatsQueries statsQueries;
+    private final TransactionTemplate tx;
+    private final LogArchive archive;
+    private final PartitionMaintenance partitions;
+    private final int reconcileDays;
+    private final int backfillChunkDays;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Held from swapping the pending maps until their deltas are written, and around each day
+    // rebuild, so a flush already in flight cannot add its deltas on top of a rebuilt day
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Map<VisitKey, Long> pendingVisits = new HashMap<>();
+    private Set<VisitorKey> pendingVisitors = new HashSet<>();
+
+    public VisitRollupService(RollupRepository rollups, StatsQueries statsQueries, TransactionTemplate tx,
+                              LogArchive archive, PartitionMaintenance partitions,
+                              @Value("${library.rollup.reconcile-days:3}") int reconcileDays,
+                              @Value("${library.rollup.backfill-chunk-days:31}") int backfillChunkDays) {
+        this.rollups = rollups;
+        this.statsQueries = statsQueries;
+        this.tx = tx;
+        this.archive = archive;
+        this.partitions = partitions;
+        this.reconcileDays = reconcileDays;
+        this.backfillChunkDays = Math.max(1, backfillChunkDays);
+    }
+
+    public void recordCheckIn(LogEntry e) {
+        LocalDateTime t = e.getCheckInTime();
+        VisitKey key = new VisitKey(t.toLocalDate(), t.getHour(),
+                e.getDepartment() != null ? e.getDepartment() : "Unknown",
+                e.getUserType() != null ? e.getUserType() : "UNKNOWN");
+        lock.lock();
+        try {
+            pendingVisits.merge(key, 1L, Long::sum);
+            pendingVisitors.add(new VisitorKey(key.day(), e.getRegNo()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.rollup.flush-ms:30000}")
+    public void flush() {
+        writeLock.lock();
+        try {
+            Map<VisitKey, Long> visits;
+            Set<VisitorKey> visitors;
+            lock.lock();
+            try {
+                if (pendingVisits.isEmpty() && pendingVisitors.isEmpty()) return;
+                visits = pendingVisits;
+                visitors = pendingVisitors;
+                pendingVisits = new HashMap<>();
+                pendingVisitors = new HashSet<>();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                tx.executeWithoutResult(s -> {
+                    rollups.addVisits(visits.entrySet().stream()
+                            .map(v -> new Object[]{Date.valueOf(v.getKey().day()), v.getKey().hour(),
+                                    v.getKey().department(), v.getKey().userType(), v.getValue()})
+                            .toList());
+                    rollups.addVisitors(visitors.stream()
+                            .map(v -> new Object[]{Date.valueOf(v.day()), v.regNo()})
+                            .toList());
+                });
+            } catch (RuntimeException ex) {
+                // Dropped deltas are repaired by the nightly reconcile
+                log.warn("Rollup flush of {} buckets failed", visits.size(), ex);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Recomputes the last few days from log_entry; today is skipped because stats read it live. */
+    @Scheduled(cron = "${library.rollup.reconcile-cron:0 15 0 * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(reconcileDays), today.minusDays(1));
+    }
+
+    /** Rebuilds past days that have entries but no rollups, so stats do not read them as empty. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            LocalDate first = rollups.firstEntryDay();
+            LocalDate today = LocalDate.now();
+            if (first == null || !first.isBefore(today)) return;
+            int rebuilt = 0;
+            for (LocalDate start = first; start.isBefore(today); start = start.plusDays(backfillChunkDays)) {
+                LocalDate end = min(start.plusDays(backfillChunkDays), today);
+                Set<LocalDate> missing = new TreeSet<>(rollups.daysWithEntries(start, end));
+                rollups.rolledUpDays(start, end.minusDays(1)).forEach(missing::remove);
+                if (missing.isEmpty()) continue;
+                rebuildDays(missing);
+                rebuilt += missing.size();
+            }
+            if (rebuilt > 0) log.info("Backfilled visit rollups for {} days", rebuilt);
+        } catch (RuntimeException ex) {
+            log.error("Visit rollup backfill failed", ex);
+        }
+    }
+
+    /** Recomputes every day in [from, to] (inclusive, capped at yesterday). Used for backfill. */
+    public int rebuild(LocalDate from, LocalDate to) {
+        LocalDate last = min(to, LocalDate.now().minusDays(1));
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(last); d = d.plusDays(1)) days.add(d);
+        rebuildDays(days);
+        return days.size();
+    }
+
+    public void rebuildDays(Collection<LocalDate> days) {
+        LocalDate today = LocalDate.now();
+        // Archived or detached rows are no longer in log_entry, so those days keep their existing rollups
+        LocalDate horizon = max(archive.horizon(), partitions.detachedHorizon());
+        for (LocalDate day : new TreeSet<>(days)) {
+            if (!day.isBefore(today) || (horizon != null && day.isBefore(horizon))) continue;
+            // One day at a time, so stats queries flushing meanwhile wait for a single rebuild at most
+            writeLock.lock();
+            try {
+                flush();
+                tx.executeWithoutResult(s -> rollups.rebuildDay(day));
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /** Days whose rollups change once the unknown entries of {@code regNo} (null = all) are resolved. */
+    public List<LocalDate> unknownDays(String regNo) {
+        return rollups.unknownDays(regNo);
+    }
+
+    public VisitStats stats(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        boolean usesRollups = !from.isAfter(yesterday);
+        boolean usesLive = !to.isBefore(today);
+
+        if (!usesRollups) return statsQueries.compute(from, to);
+        flush();
+
+        LocalDate rollupTo = min(to, yesterday);
+        VisitStats stats = usesLive ? statsQueries.compute(today, to) : new VisitStats();
+        stats.setFrom(from);
+        stats.setTo(to);
+        rollups.addTo(stats, from, rollupTo);
+        stats.setUniqueUsers(usesLive
+                ? rollups.uniqueVisitors(from, rollupTo, today, to.plusDays(1))
+                : rollups.uniqueVisitors(from, rollupTo, today, today));
+        stats.setByDepartment(stats.getByDepartment().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new)));
+        return stats;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+}
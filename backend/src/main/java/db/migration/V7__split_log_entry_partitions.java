@@ -0,0 +1,62 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the single pmax partition created by V6 into p_history (rows older than
+ * {@code library.partitions.history-months}), one partition per month up to
+ * {@code months-ahead} months from now, and pmax. Every existing row is copied once,
+ * so this runs during the deploy instead of in PartitionMaintenance while scans are
+ * being served. Skipped if log_entry was already split.
+ *
+ * The partition naming and DDL are copied here rather than shared, so later changes
+ * to the application code cannot change what this migration does.
+ */
+public class V7__split_log_entry_partitions extends BaseJavaMigration {
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Map<String, String> placeholders = context.getConfiguration().getPlaceholders();
+        int historyMonths = Integer.parseInt(placeholders.getOrDefault("partition-history-months", "72"));
+        int monthsAhead = Integer.parseInt(placeholders.getOrDefault("partition-months-ahead", "3"));
+
+        try (Statement st = context.getConnection().createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM information_schema.partitions " +
+                    "WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND partition_name IS NOT NULL")) {
+                rs.next();
+                if (rs.getLong(1) != 1) return;
+            }
+            YearMonth now = YearMonth.now();
+            YearMonth start = now;
+            try (ResultSet rs = st.executeQuery("SELECT MIN(check_in_time) FROM log_entry")) {
+                rs.next();
+                Timestamp min = rs.getTimestamp(1);
+                if (min != null) start = YearMonth.from(min.toLocalDateTime());
+            }
+
+            List<String> defs = new ArrayList<>();
+            YearMonth floor = now.minusMonths(historyMonths);
+            if (start.isBefore(floor)) {
+                defs.add("PARTITION p_history VALUES LESS THAN ('" + floor.atDay(1) + "')");
+                start = floor;
+            }
+            for (YearMonth m = start; m.isBefore(now.plusMonths(monthsAhead + 1L)); m = m.plusMonths(1)) {
+                defs.add("PARTITION " + m.atDay(1).format(NAME) + " VALUES LESS THAN ('" + m.plusMonths(1).atDay(1) + "')");
+            }
+            defs.add("PARTITION pmax VALUES LESS THAN (MAXVALUE)");
+            st.execute("ALTER TABLE log_entry REORGANIZE PARTITION pmax INTO (" + String.join(", ", defs) + ")");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Tables as created by hibernate.ddl-auto=update before migrations took over.
+-- IF NOT EXISTS lets this run against databases that already have them.
+
+CREATE TABLE IF NOT EXISTS student (
+    reg_no     VARCHAR(255) NOT NULL,
+    department VARCHAR(255),
+    name       VARCHAR(255),
+    PRIMARY KEY (reg_no)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS staff (
+    reg_no     VARCHAR(255) NOT NULL,
+    department VARCHAR(255),
+    name       VARCHAR(255),
+    PRIMARY KEY (reg_no)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS log_entry (
+    id             VARCHAR(255) NOT NULL,
+    check_in_time  DATETIME(6),
+    check_out_time DATETIME(6),
+    department     VARCHAR(255),
+    name           VARCHAR(255),
+    reg_no         VARCHAR(255),
+    user_type      VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
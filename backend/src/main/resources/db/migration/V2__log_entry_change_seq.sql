@@ -0,0 +1,10 @@
+-- Change-feed sequence (may already exist where ddl-auto=update added it)
+
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+        'ALTER TABLE log_entry ADD COLUMN change_seq BIGINT NULL',
+        'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND column_name = 'change_seq');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
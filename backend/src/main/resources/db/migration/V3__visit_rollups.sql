@@ -0,0 +1,18 @@
+-- Daily visit rollups. department matches student/staff.department so any
+-- name the source tables accept can be rolled up; the key (3 + 4 + 255*4 +
+-- 20*4 bytes with utf8mb4) is well under InnoDB's 3072-byte limit.
+
+CREATE TABLE IF NOT EXISTS visit_rollup (
+    visit_date DATE         NOT NULL,
+    visit_hour INT          NOT NULL,
+    department VARCHAR(255) NOT NULL,
+    user_type  VARCHAR(20)  NOT NULL,
+    visits     BIGINT       NOT NULL,
+    PRIMARY KEY (visit_date, visit_hour, department, user_type)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS visit_rollup_visitor (
+    visit_date DATE         NOT NULL,
+    reg_no     VARCHAR(255) NOT NULL,
+    PRIMARY KEY (visit_date, reg_no)
+) ENGINE = InnoDB;
@@ -0,0 +1,58 @@
+-- Indexes for the log_entry hot paths. Each is created only if missing, since
+-- ddl-auto=update may already have added some of them by name.
+--
+--   idx_log_entry_reg_open      open session of one regNo; updates of one regNo's unknowns
+--   idx_log_entry_open          all open sessions (startup index rebuild, checkout-all)
+--   idx_log_entry_unknown       name IS NULL scans (sync-unknown joins, unknown rollup days)
+--   idx_log_entry_check_in      keyset paging, reports, stats date ranges
+--   idx_log_entry_dept_check_in / idx_log_entry_type_check_in   filtered reports
+--   idx_log_entry_change_seq    change feed
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_log_entry_reg_open ON log_entry (reg_no, check_out_time)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND index_name = 'idx_log_entry_reg_open');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_log_entry_open ON log_entry (check_out_time)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND index_name = 'idx_log_entry_open');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_log_entry_unknown ON log_entry (name, reg_no)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND index_name = 'idx_log_entry_unknown');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_log_entry_check_in ON log_entry (check_in_time, id)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND index_name = 'idx_log_entry_check_in');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_log_entry_dept_check_in ON log_entry (department, check_in_time)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND index_name = 'idx_log_entry_dept_check_in');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_log_entry_type_check_in ON log_entry (user_type, check_in_time)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND index_name = 'idx_log_entry_type_check_in');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_log_entry_change_seq ON log_entry (change_seq)', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'log_entry' AND index_name = 'idx_log_entry_change_seq');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
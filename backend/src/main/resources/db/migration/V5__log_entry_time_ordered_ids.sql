@@ -0,0 +1,26 @@
+-- Replace random VARCHAR UUID keys with time-ordered UUIDv7 in BINARY(16).
+--
+-- Existing rows get a new v7 id built from their own check_in_time (48-bit millis,
+-- version 7, random tail), so history is laid out in time order too. Ids are not
+-- referenced by any other table. Swapping the primary key rebuilds the table in
+-- the new order; on large tables run this in a maintenance window.
+
+ALTER TABLE log_entry ADD COLUMN new_id BINARY(16) NULL;
+
+UPDATE log_entry
+SET new_id = UNHEX(CONCAT(
+        LPAD(HEX(FLOOR(UNIX_TIMESTAMP(COALESCE(check_in_time, '1970-01-02')) * 1000)), 12, '0'),
+        '7',
+        SUBSTR(HEX(RANDOM_BYTES(10)), 1, 3),
+        '8',
+        SUBSTR(HEX(RANDOM_BYTES(10)), 1, 15)));
+
+DROP INDEX idx_log_entry_check_in ON log_entry;
+
+ALTER TABLE log_entry
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN new_id id BINARY(16) NOT NULL FIRST,
+    ADD PRIMARY KEY (id);
+
+CREATE INDEX idx_log_entry_check_in ON log_entry (check_in_time, id);
@@ -0,0 +1,16 @@
+-- Range-partition log_entry by check-in time. MySQL requires the partitioning
+-- column in every unique key, so the primary key becomes (id, check_in_time).
+-- Everything starts in the catch-all pmax partition; PartitionMaintenance splits
+-- it into monthly partitions on startup and keeps a few months ahead from then on.
+
+UPDATE log_entry SET check_in_time = COALESCE(check_out_time, '1970-01-01') WHERE check_in_time IS NULL;
+
+ALTER TABLE log_entry
+    MODIFY check_in_time DATETIME(6) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, check_in_time);
+
+ALTER TABLE log_entry
+    PARTITION BY RANGE COLUMNS (check_in_time) (
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
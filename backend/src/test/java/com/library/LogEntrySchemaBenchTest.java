@@ -0,0 +1,268 @@
+package com.library;
+
+import com.library.entity.UuidV7;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timings behind the V4 log_entry indexes and the V5 switch from random VARCHAR ids to
+ * BINARY(16) UUIDv7. Seeds scratch bench_* tables (dropped afterwards) in the given
+ * database and prints the numbers. Skipped unless a database is given, e.g.
+ *
+ * <pre>
+ * mvn test -Dtest=LogEntrySchemaBenchTest \
+ *     -Dlibrary.benchtest.url="jdbc:mysql://localhost:3306/library_bench?rewriteBatchedStatements=true" \
+ *     -Dlibrary.benchtest.rows=10000000
+ * </pre>
+ *
+ * Optional: {@code library.benchtest.user} (root), {@code library.benchtest.password} (admin),
+ * {@code library.benchtest.rows} (1000000), {@code library.benchtest.lookups} (10000).
+ * Use a scratch database: the tables are large and seeding 10M rows takes a while.
+ */
+@EnabledIfSystemProperty(named = "library.benchtest.url", matches = ".+")
+class LogEntrySchemaBenchTest {
+
+    private static final int BATCH = 5000;
+    private static final int CARDS = 50_000;
+    private static final int REPEATS = 5;
+
+    private final int rows = Integer.getInteger("library.benchtest.rows", 1_000_000);
+    private final int lookups = Integer.getInteger("library.benchtest.lookups", 10_000);
+    private final Random random = new Random(42);
+    private Connection db;
+
+    @BeforeEach
+    void connect() throws SQLException {
+        db = DriverManager.getConnection(System.getProperty("library.benchtest.url"),
+                System.getProperty("library.benchtest.user", "root"),
+                System.getProperty("library.benchtest.password", "admin"));
+        dropTables();
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        try {
+            dropTables();
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    void v4IndexesOnHotQueries() throws SQLException {
+        execute("CREATE TABLE bench_log_entry (id BINARY(16) NOT NULL, check_in_time DATETIME(6), " +
+                "check_out_time DATETIME(6), department VARCHAR(255), name VARCHAR(255), reg_no VARCHAR(255), " +
+                "user_type VARCHAR(255), change_seq BIGINT, PRIMARY KEY (id)) ENGINE = InnoDB");
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        long seedNanos = seedLogEntries(start);
+        System.out.printf("seeded %d log entries in %.1f s%n", rows, seedNanos / 1e9);
+
+        // The hot paths listed at the top of V4, with the parameters the app uses
+        LocalDateTime monthAgo = LocalDateTime.now().minusDays(30);
+        Map<String, Query> queries = new LinkedHashMap<>();
+        queries.put("open session of one regNo", new Query(
+                "SELECT id FROM bench_log_entry WHERE reg_no = ? AND check_out_time IS NULL", card(123)));
+        queries.put("all open sessions", new Query(
+                "SELECT id, reg_no FROM bench_log_entry WHERE check_out_time IS NULL"));
+        queries.put("unknown regNos", new Query(
+                "SELECT DISTINCT reg_no FROM bench_log_entry WHERE name IS NULL"));
+        queries.put("keyset page", new Query(
+                "SELECT * FROM bench_log_entry WHERE check_in_time < ? ORDER BY check_in_time DESC, id DESC LIMIT 50",
+                Timestamp.valueOf(monthAgo)));
+        queries.put("department, last 30 days", new Query(
+                "SELECT COUNT(*) FROM bench_log_entry WHERE department = ? AND check_in_time >= ?",
+                "DEPT-07", Timestamp.valueOf(monthAgo)));
+        queries.put("user type, last 30 days", new Query(
+                "SELECT COUNT(*) FROM bench_log_entry WHERE user_type = ? AND check_in_time >= ?",
+                "STAFF", Timestamp.valueOf(monthAgo)));
+        queries.put("change feed page", new Query(
+                "SELECT * FROM bench_log_entry WHERE change_seq > ? ORDER BY change_seq LIMIT 500", rows - 1000L));
+
+        Map<String, Double> before = new LinkedHashMap<>();
+        for (Map.Entry<String, Query> q : queries.entrySet()) before.put(q.getKey(), medianMillis(q.getValue()));
+
+        long indexNanos = System.nanoTime();
+        execute("CREATE INDEX idx_log_entry_reg_open ON bench_log_entry (reg_no, check_out_time)");
+        execute("CREATE INDEX idx_log_entry_open ON bench_log_entry (check_out_time)");
+        execute("CREATE INDEX idx_log_entry_unknown ON bench_log_entry (name, reg_no)");
+        execute("CREATE INDEX idx_log_entry_check_in ON bench_log_entry (check_in_time, id)");
+        execute("CREATE INDEX idx_log_entry_dept_check_in ON bench_log_entry (department, check_in_time)");
+        execute("CREATE INDEX idx_log_entry_type_check_in ON bench_log_entry (user_type, check_in_time)");
+        execute("CREATE INDEX idx_log_entry_change_seq ON bench_log_entry (change_seq)");
+        execute("ANALYZE TABLE bench_log_entry");
+        System.out.printf("built the V4 indexes in %.1f s%n", (System.nanoTime() - indexNanos) / 1e9);
+
+        double totalBefore = 0, totalAfter = 0;
+        for (Map.Entry<String, Query> q : queries.entrySet()) {
+            double after = medianMillis(q.getValue());
+            totalBefore += before.get(q.getKey());
+            totalAfter += after;
+            System.out.printf("%-28s %10.2f ms -> %8.2f ms%n", q.getKey(), before.get(q.getKey()), after);
+        }
+        assertTrue(totalAfter < totalBefore, "V4 indexes did not speed up the hot queries");
+    }
+
+    @Test
+    void uuidV7VersusVarcharIds() throws SQLException {
+        execute("CREATE TABLE bench_id_varchar (id VARCHAR(255) NOT NULL, reg_no VARCHAR(255), " +
+                "check_in_time DATETIME(6), PRIMARY KEY (id)) ENGINE = InnoDB");
+        execute("CREATE TABLE bench_id_v7 (id BINARY(16) NOT NULL, reg_no VARCHAR(255), " +
+                "check_in_time DATETIME(6), PRIMARY KEY (id)) ENGINE = InnoDB");
+
+        List<Object> varcharIds = new ArrayList<>(lookups);
+        List<Object> v7Ids = new ArrayList<>(lookups);
+        long varcharInsert = seedIds("bench_id_varchar", () -> UUID.randomUUID().toString(), varcharIds);
+        long v7Insert = seedIds("bench_id_v7", () -> UuidV7.toBytes(UuidV7.next()), v7Ids);
+        execute("ANALYZE TABLE bench_id_varchar, bench_id_v7");
+
+        double varcharLookup = lookupMicros("bench_id_varchar", varcharIds);
+        double v7Lookup = lookupMicros("bench_id_v7", v7Ids);
+
+        System.out.printf("%-16s %12s %14s %12s%n", "ids", "inserts/s", "lookup (us)", "size (MB)");
+        System.out.printf("%-16s %12.0f %14.1f %12.1f%n", "VARCHAR random",
+                rows / (varcharInsert / 1e9), varcharLookup, sizeMb("bench_id_varchar"));
+        System.out.printf("%-16s %12.0f %14.1f %12.1f%n", "BINARY(16) v7",
+                rows / (v7Insert / 1e9), v7Lookup, sizeMb("bench_id_v7"));
+        assertEquals(rows, count("bench_id_varchar"));
+        assertEquals(rows, count("bench_id_v7"));
+    }
+
+    private record Query(String sql, Object... params) {}
+
+    private interface IdSource {
+        Object next();
+    }
+
+    // Rows in check-in order like real traffic: 2% unknown cards, the newest few hundred still open
+    private long seedLogEntries(LocalDateTime start) throws SQLException {
+        long secondsPerRow = Math.max(1, 365L * 24 * 3600 / rows);
+        long began = System.nanoTime();
+        db.setAutoCommit(false);
+        try (PreparedStatement ps = db.prepareStatement("INSERT INTO bench_log_entry " +
+                "(id, check_in_time, check_out_time, department, name, reg_no, user_type, change_seq) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                LocalDateTime in = start.plusSeconds(i * secondsPerRow);
+                int c = random.nextInt(CARDS);
+                boolean unknown = random.nextInt(50) == 0;
+                ps.setBytes(1, UuidV7.toBytes(UuidV7.next()));
+                ps.setTimestamp(2, Timestamp.valueOf(in));
+                ps.setTimestamp(3, i >= rows - 500 ? null : Timestamp.valueOf(in.plusHours(2)));
+                ps.setString(4, unknown ? null : String.format("DEPT-%02d", c % 20));
+                ps.setString(5, unknown ? null : "Name " + c);
+                ps.setString(6, card(c));
+                ps.setString(7, unknown ? "UNKNOWN" : c % 10 == 0 ? "STAFF" : "STUDENT");
+                ps.setLong(8, i + 1L);
+                ps.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    ps.executeBatch();
+                    db.commit();
+                }
+            }
+            ps.executeBatch();
+            db.commit();
+        } finally {
+            db.setAutoCommit(true);
+        }
+        return System.nanoTime() - began;
+    }
+
+    // Keeps every (rows / lookups)-th id so the lookups hit the whole key range
+    private long seedIds(String table, IdSource ids, List<Object> sample) throws SQLException {
+        int every = Math.max(1, rows / lookups);
+        long began = System.nanoTime();
+        db.setAutoCommit(false);
+        try (PreparedStatement ps = db.prepareStatement(
+                "INSERT INTO " + table + " (id, reg_no, check_in_time) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                Object id = ids.next();
+                if (i % every == 0 && sample.size() < lookups) sample.add(id);
+                ps.setObject(1, id);
+                ps.setString(2, card(random.nextInt(CARDS)));
+                ps.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                ps.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    ps.executeBatch();
+                    db.commit();
+                }
+            }
+            ps.executeBatch();
+            db.commit();
+        } finally {
+            db.setAutoCommit(true);
+        }
+        return System.nanoTime() - began;
+    }
+
+    private double lookupMicros(String table, List<Object> ids) throws SQLException {
+        List<Object> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, random);
+        try (PreparedStatement ps = db.prepareStatement("SELECT reg_no FROM " + table + " WHERE id = ?")) {
+            long began = System.nanoTime();
+            for (Object id : shuffled) {
+                ps.setObject(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next(), "seeded id not found in " + table);
+                }
+            }
+            return (System.nanoTime() - began) / 1e3 / shuffled.size();
+        }
+    }
+
+    // First run warms the buffer pool; the median of the rest is reported
+    private double medianMillis(Query q) throws SQLException {
+        double[] runs = new double[REPEATS];
+        try (PreparedStatement ps = db.prepareStatement(q.sql())) {
+            for (int i = 0; i < q.params().length; i++) ps.setObject(i + 1, q.params()[i]);
+            for (int r = -1; r < REPEATS; r++) {
+                long began = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) { /* drain */ }
+                }
+                if (r >= 0) runs[r] = (System.nanoTime() - began) / 1e6;
+            }
+        }
+        Arrays.sort(runs);
+        return runs[REPEATS / 2];
+    }
+
+    private double sizeMb(String table) throws SQLException {
+        try (PreparedStatement ps = db.prepareStatement("SELECT data_length + index_length FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) / 1048576.0 : 0;
+            }
+        }
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement s = db.createStatement(); ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement s = db.createStatement()) {
+            s.execute(sql);
+        }
+    }
+
+    private void dropTables() throws SQLException {
+        execute("DROP TABLE IF EXISTS bench_log_entry, bench_id_varchar, bench_id_v7");
+    }
+
+    private static String card(int c) {
+        return String.format("BENCH-%05d", c);
+    }
+}
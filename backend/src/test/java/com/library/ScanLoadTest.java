@@ -0,0 +1,92 @@
+package com.library;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load comparison for the java21 profile: N simulated scanners POST /api/scan against a
+ * running backend for a fixed time and the test prints throughput and latency
+ * percentiles. Skipped unless a target is given, e.g.
+ *
+ * <pre>
+ * mvn spring-boot:run                      (or: mvn -Pjava21 spring-boot:run)
+ * mvn test -Dtest=ScanLoadTest -Dlibrary.loadtest.url=http://localhost:8080
+ * </pre>
+ *
+ * Optional: {@code library.loadtest.scanners} (default 1000), {@code library.loadtest.seconds} (30).
+ * Each scanner toggles its own LOADTEST-nnnn card, so run checkout-all afterwards.
+ */
+@EnabledIfSystemProperty(named = "library.loadtest.url", matches = ".+")
+class ScanLoadTest {
+
+    @Test
+    void scanThroughputAndLatency() throws Exception {
+        String base = System.getProperty("library.loadtest.url");
+        int scanners = Integer.getInteger("library.loadtest.scanners", 1000);
+        int seconds = Integer.getInteger("library.loadtest.seconds", 30);
+
+        // One blocking thread per scanner; the client keeps its own executor, since handing it
+        // this pool would leave it no free thread to complete the exchanges the scanners wait on
+        ExecutorService pool = Executors.newFixedThreadPool(scanners);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> results = new ArrayList<>();
+
+        for (int s = 0; s < scanners; s++) {
+            URI uri = URI.create(base + "/api/scan/" + String.format("LOADTEST-%04d", s));
+            results.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> r = client.send(HttpRequest.newBuilder(uri)
+                                        .POST(HttpRequest.BodyPublishers.noBody()).timeout(Duration.ofSeconds(10)).build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (r.statusCode() != 200) errors.incrementAndGet();
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    if (n == latencies.length) latencies = Arrays.copyOf(latencies, n * 2);
+                    latencies[n++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, n);
+            }));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> f : results) {
+            long[] l = f.get(seconds + 60L, TimeUnit.SECONDS);
+            int at = all.length;
+            all = Arrays.copyOf(all, at + l.length);
+            System.arraycopy(l, 0, all, at, l.length);
+        }
+        pool.shutdownNow();
+        Arrays.sort(all);
+
+        System.out.printf("%d scanners, %d s: %d scans (%.0f/s), errors %d, p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                scanners, seconds, all.length, all.length / (double) seconds, errors.get(),
+                percentile(all, 0.50), percentile(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        assertTrue(all.length > 0, "no scans completed");
+        assertTrue(errors.get() <= all.length / 100, "more than 1% of scans failed: " + errors.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,166 @@
+package com.library.service;
+
+import com.library.entity.LogEntry;
+import com.library.entity.UuidV7;
+import com.library.repository.LogEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hammers {@link GateService#toggle} from many threads over a handful of cards, against an
+ * in-memory stand-in for log_entry, and checks that no card ever gets a second open
+ * session (checked on every insert) and that the session index and occupancy counters agree with the table.
+ */
+class GateServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int SCANS_PER_THREAD = 5_000;
+    private static final List<String> REG_NOS = List.of("21CS001", "21CS002", "21EC001", "21ME001", "ST001", "ST002");
+
+    private final Map<UUID, LogEntry> table = new ConcurrentHashMap<>();
+    private final List<String> duplicateOpens = new CopyOnWriteArrayList<>();
+    private ActiveSessionIndex sessions;
+    private OccupancyCounters occupancy;
+    private GateService gate;
+
+    @BeforeEach
+    void setUp() {
+        LogEntryRepository repo = mock(LogEntryRepository.class, withSettings().stubOnly());
+        when(repo.save(any(LogEntry.class))).thenAnswer(inv -> {
+            LogEntry e = ActiveSessionIndex.copyOf(inv.getArgument(0));
+            // Runs under the card's lock, so any earlier session of this card has already been closed
+            if (openRows().stream().anyMatch(o -> o.getRegNo().equals(e.getRegNo()))) duplicateOpens.add(e.getRegNo());
+            if (e.getId() == null) e.setId(UuidV7.next());
+            table.put(e.getId(), e);
+            return ActiveSessionIndex.copyOf(e);
+        });
+        when(repo.closeSession(any(), any(), any(), any(), anyLong())).thenAnswer(inv -> {
+            AtomicBoolean closed = new AtomicBoolean();
+            table.computeIfPresent(inv.getArgument(0), (id, e) -> {
+                if (e.getCheckOutTime() == null) {
+                    e.setCheckOutTime(inv.getArgument(3));
+                    e.setChangeSeq(inv.getArgument(4));
+                    closed.set(true);
+                }
+                return e;
+            });
+            return closed.get() ? 1 : 0;
+        });
+        when(repo.closeAllSessions(any(), anyLong())).thenAnswer(inv -> {
+            int n = 0;
+            for (LogEntry e : table.values()) {
+                if (e.getCheckOutTime() == null) {
+                    e.setCheckOutTime(inv.getArgument(0));
+                    n++;
+                }
+            }
+            return n;
+        });
+        when(repo.findByCheckOutTimeIsNull()).thenAnswer(inv -> openRows());
+
+        ChangeSequence changes = new ChangeSequence(null);
+        occupancy = new OccupancyCounters();
+        sessions = new ActiveSessionIndex(repo, occupancy);
+        sessions.rebuild();
+        RegNoLocks locks = new RegNoLocks(1024);
+        ScanWriteBehind writeBehind = new ScanWriteBehind(null, null, changes, sessions, false,
+                ScanWriteBehind.Durability.ASYNC, 16, 16, 5, 250, 5000, 30);
+        gate = new GateService(repo, sessions, writeBehind, locks, mock(MasterDataCache.class),
+                new GateEventBroadcaster(16, 60_000, 60_000, 5_000), changes, mock(VisitRollupService.class),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void concurrentTogglesNeverOpenTwoSessionsForOneCard() throws Exception {
+        run(() -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < SCANS_PER_THREAD; i++) {
+                gate.toggle(request(REG_NOS.get(rnd.nextInt(REG_NOS.size()))));
+            }
+        });
+        assertConsistent();
+    }
+
+    @Test
+    void checkoutAllDuringTogglesLeavesIndexAndCountersConsistent() throws Exception {
+        run(() -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < SCANS_PER_THREAD; i++) {
+                if (rnd.nextInt(500) == 0) gate.checkoutAll();
+                else gate.toggle(request(REG_NOS.get(rnd.nextInt(REG_NOS.size()))));
+            }
+        });
+        assertConsistent();
+    }
+
+    private void run(Runnable worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new java.util.ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    worker.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void assertAtMostOneOpenPerCard() {
+        assertTrue(duplicateOpens.isEmpty(), duplicateOpens.size() + " check-ins while the card already had an open session, e.g. "
+                + duplicateOpens.stream().limit(5).toList());
+        Map<String, Long> open = openRows().stream()
+                .collect(Collectors.groupingBy(LogEntry::getRegNo, Collectors.counting()));
+        open.forEach((regNo, n) -> assertTrue(n <= 1, regNo + " has " + n + " open sessions"));
+    }
+
+    private void assertConsistent() {
+        assertAtMostOneOpenPerCard();
+        List<LogEntry> open = openRows();
+        assertEquals(open.size(), sessions.size(), "session index size");
+        for (LogEntry e : open) {
+            assertEquals(e.getId(), sessions.find(e.getRegNo()).orElseThrow().getId(), "index entry for " + e.getRegNo());
+        }
+
+        assertEquals(open.size(), occupancy.total(), "occupancy total");
+        assertEquals(occupancy.checkIns() - occupancy.checkOuts(), occupancy.total(), "check-ins minus check-outs");
+        Map<String, Long> byDepartment = open.stream()
+                .collect(Collectors.groupingBy(LogEntry::getDepartment, Collectors.counting()));
+        assertEquals(byDepartment, occupancy.snapshot().getByDepartment(), "per-department counts");
+        assertEquals(open.size(), occupancy.snapshot().getByUserType().values().stream().mapToLong(Long::longValue).sum(),
+                "per-user-type counts");
+    }
+
+    private List<LogEntry> openRows() {
+        return table.values().stream().filter(e -> e.getCheckOutTime() == null).toList();
+    }
+
+    private static LogEntry request(String regNo) {
+        LogEntry e = new LogEntry();
+        e.setRegNo(regNo);
+        e.setName("Name " + regNo);
+        e.setDepartment(regNo.startsWith("ST") ? "Library" : regNo.substring(2, 4));
+        e.setUserType(regNo.startsWith("ST") ? "STAFF" : "STUDENT");
+        e.setCheckInTime(LocalDateTime.now());
+        return e;
+    }
+}
@@ -120,27 +120,20 @@ const DataManagement: React.FC = () => {
       setIsLoading(true);
       setUploadProgress(0);
 
-      const lines = text.split('\n');
-      const dataLines = lines.slice(1).filter(line => line.trim()); // Filter empty lines
-      const total = dataLines.length;
-      let count = 0;
-
-      for (let i = 0; i < total; i++) {
-        const line = dataLines[i];
-        const [regNo, name, department] = line.split(',').map(s => s?.trim().replace(/^"|"$/g, ''));
-        if (regNo && name && department) {
-          try {
-            await DBService.addMasterUser({ regNo, name, department });
-            count++;
-          } catch (err) {
-            console.error(`Failed to add user ${regNo}`, err);
-          }
-        }
-        // Update progress
-        setUploadProgress(Math.round(((i + 1) / total) * 100));
+      try {
+        setUploadProgress(50); // Single streamed request
+        const result = await DBService.importMasterCsv(text);
+        setUploadProgress(100);
+        result.errors.forEach(err => console.error(`Line ${err.line} (${err.regNo}): ${err.message}`));
+        setStatus({
+          type: result.errorCount === 0 ? 'success' : 'error',
+          msg: `Processed ${result.students + result.staff} records into MySQL.` +
+            (result.errorCount > 0 ? ` ${result.errorCount} rows rejected (see console).` : '')
+        });
+      } catch (err) {
+        setStatus({ type: 'error', msg: 'MySQL Import Error' });
       }
 
-      setStatus({ type: 'success', msg: `Processed ${count} records into MySQL.` });
       await refreshList();
       setIsLoading(false);
       setUploadProgress(0);
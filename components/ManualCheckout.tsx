@@ -1,18 +1,27 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect, useCallback } from 'react';
 import { Entry } from '../types';
 import { DBService } from '../services/dbService';
 
 interface ManualCheckoutProps {
-  entries: Entry[];
   onRefresh: () => void;
 }
 
-const ManualCheckout: React.FC<ManualCheckoutProps> = ({ entries, onRefresh }) => {
+const ManualCheckout: React.FC<ManualCheckoutProps> = ({ onRefresh }) => {
   const [isProcessing, setIsProcessing] = useState(false);
+  const [activeEntries, setActiveEntries] = useState<Entry[]>([]);
 
-  // FIX 1: Filter using 'checkOutTime' (Backend name) instead of just checking for null
-  // We check for !checkOutTime to handle both null and undefined
-  const activeEntries = entries.filter(e => !e.checkOutTime);
+  // Only the open sessions, filtered server-side
+  const loadActive = useCallback(async () => {
+    try {
+      setActiveEntries(await DBService.getAllEntries({ open: true }));
+    } catch (err) {
+      console.error("Failed to load active sessions", err);
+    }
+  }, []);
+
+  useEffect(() => {
+    loadActive();
+  }, [loadActive]);
 
   // FIX 2: Helper to format the ISO string from Java (e.g., "2023-10-25T10:00:00")
   const formatTime = (isoString: string | undefined) => {
@@ -24,6 +33,7 @@ const ManualCheckout: React.FC<ManualCheckoutProps> = ({ entries, onRefresh }) =
     setIsProcessing(true);
     try {
       await DBService.manualCheckout(id);
+      await loadActive();
       onRefresh();
     } finally {
       setIsProcessing(false);
@@ -35,6 +45,7 @@ const ManualCheckout: React.FC<ManualCheckoutProps> = ({ entries, onRefresh }) =
       setIsProcessing(true);
       try {
         await DBService.checkoutAllActive();
+        await loadActive();
         onRefresh();
       } finally {
         setIsProcessing(false);
@@ -1,11 +1,10 @@
-import React, { useState, useMemo } from 'react';
+import React, { useState, useEffect, useMemo, useCallback } from 'react';
 import { Entry, UserType } from '../types';
+import { DBService } from '../services/dbService';
 
-interface ReportsProps {
-  entries: Entry[];
-}
+const PAGE_SIZE = 100;
 
-const Reports: React.FC<ReportsProps> = ({ entries }) => {
+const Reports: React.FC = () => {
 
   // Logic: Get Local Date (YYYY-MM-DD)
   const getTodayLocal = () => {
@@ -23,6 +22,17 @@ const Reports: React.FC<ReportsProps> = ({ entries }) => {
   const [selectedDept, setSelectedDept] = useState('ALL');
   const [selectedUserType, setSelectedUserType] = useState<'ALL' | UserType>('ALL');
   const [filterSearch, setFilterSearch] = useState('');
+  const [search, setSearch] = useState('');
+
+  // Server-side results: one page at a time, plus the total and per-department summary
+  const [entries, setEntries] = useState<Entry[]>([]);
+  const [next, setNext] = useState<string | null>(null);
+  const [total, setTotal] = useState(0);
+  const [totalCapped, setTotalCapped] = useState(false);
+  const [summary, setSummary] = useState<Record<string, Record<string, number>>>({});
+  const [departments, setDepartments] = useState<string[]>([]);
+  const [isLoading, setIsLoading] = useState(false);
+  const [error, setError] = useState<string | null>(null);
 
   // Reset filters
   const clearFilters = () => {
@@ -33,48 +43,69 @@ const Reports: React.FC<ReportsProps> = ({ entries }) => {
     setFilterSearch('');
   };
 
-  const departments = useMemo(() => {
-    const depts = new Set(entries.map(e => e.department).filter(Boolean));
-    return Array.from(depts).sort();
-  }, [entries]);
+  // Don't query on every keystroke
+  useEffect(() => {
+    const timer = setTimeout(() => setSearch(filterSearch.trim()), 300);
+    return () => clearTimeout(timer);
+  }, [filterSearch]);
 
-  const filteredEntries = useMemo(() => {
-    const result = entries.filter(e => {
-      // Safety check
-      if (!e.checkInTime) return false;
+  useEffect(() => {
+    DBService.getReportDepartments().then(setDepartments).catch(() => setDepartments([]));
+  }, []);
 
-      const entryDate = e.checkInTime.split('T')[0];
-      const matchesDateRange = (!fromDate || entryDate >= fromDate) && (!toDate || entryDate <= toDate);
-      const matchesDept = selectedDept === 'ALL' || e.department === selectedDept;
-      const matchesType = selectedUserType === 'ALL' || e.userType === selectedUserType;
-      const matchesSearch = filterSearch
-        ? e.regNo.toLowerCase().includes(filterSearch.toLowerCase()) ||
-        e.name.toLowerCase().includes(filterSearch.toLowerCase())
-        : true;
-      return matchesDateRange && matchesDept && matchesSearch && matchesType;
-    });
+  const filters = useMemo(() => ({
+    from: fromDate,
+    to: toDate,
+    department: selectedDept,
+    userType: selectedUserType,
+    search,
+  }), [fromDate, toDate, selectedDept, selectedUserType, search]);
 
-    // FIX: SORT BY DATE & TIME (Newest First)
-    return result.sort((a, b) => {
-      const timeA = a.checkInTime || '';
-      const timeB = b.checkInTime || '';
-      return timeB.localeCompare(timeA); // Descending Order
+  useEffect(() => {
+    let cancelled = false;
+    setIsLoading(true);
+    Promise.all([
+      DBService.getReportEntries({ ...filters, limit: PAGE_SIZE }),
+      DBService.getReportSummary(filters),
+    ]).then(([page, sum]) => {
+      if (cancelled) return;
+      setEntries(page.entries);
+      setNext(page.next);
+      setTotal(page.total ?? page.entries.length);
+      setTotalCapped(!!page.totalCapped);
+      setSummary(sum);
+      setError(null);
+    }).catch(err => {
+      if (!cancelled) setError(err.message || 'Could not load report');
+    }).finally(() => {
+      if (!cancelled) setIsLoading(false);
     });
+    return () => { cancelled = true; };
+  }, [filters]);
 
-  }, [entries, fromDate, toDate, selectedDept, selectedUserType, filterSearch]);
+  const loadMore = useCallback(async () => {
+    if (!next) return;
+    setIsLoading(true);
+    try {
+      const page = await DBService.getReportEntries({ ...filters, limit: PAGE_SIZE, after: next });
+      setEntries(prev => [...prev, ...page.entries]);
+      setNext(page.next);
+    } catch (err: any) {
+      setError(err.message || 'Could not load report');
+    } finally {
+      setIsLoading(false);
+    }
+  }, [filters, next]);
 
   const deptCounts = useMemo(() => {
-    const counts: Record<string, { total: number, student: number, staff: number }> = {};
-    filteredEntries.forEach(e => {
-      if (!counts[e.department]) {
-        counts[e.department] = { total: 0, student: 0, staff: 0 };
-      }
-      counts[e.department].total += 1;
-      if (e.userType === 'STUDENT') counts[e.department].student += 1;
-      else counts[e.department].staff += 1;
-    });
-    return Object.entries(counts).sort((a, b) => b[1].total - a[1].total);
-  }, [filteredEntries]);
+    return Object.entries(summary)
+      .map(([dept, byType]) => {
+        const totalVisits = Object.values(byType).reduce((a, b) => a + b, 0);
+        const student = byType['STUDENT'] || 0;
+        return [dept, { total: totalVisits, student, staff: totalVisits - student }] as [string, { total: number, student: number, staff: number }];
+      })
+      .sort((a, b) => b[1].total - a[1].total);
+  }, [summary]);
 
   // Helpers
   const formatTime = (iso: string | undefined) => {
@@ -82,32 +113,10 @@ const Reports: React.FC<ReportsProps> = ({ entries }) => {
     return new Date(iso).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' });
   };
 
-  const formatDate = (iso: string | undefined) => {
-    if (!iso) return '';
-    return iso.split('T')[0];
-  };
-
+  // The server streams every matching row (including archived months), not just the loaded pages
   const exportToCSV = () => {
-    const reportTitle = `${selectedUserType}_${selectedDept === 'ALL' ? 'Overall' : selectedDept.replace(/\s+/g, '_')}_Report`;
-    const headers = ['Entry ID', 'Registration No', 'Full Name', 'Department', 'User Type', 'Date', 'In Time', 'Out Time'];
-
-    const rows = filteredEntries.map(e => [
-      e.id,
-      e.regNo,
-      e.name?.replace(/,/g, '') || 'Unknown',
-      e.department,
-      e.userType,
-      formatDate(e.checkInTime),
-      formatTime(e.checkInTime),
-      formatTime(e.checkOutTime)
-    ]);
-
-    const csvContent = [headers, ...rows].map(r => r.join(',')).join('\n');
-    const blob = new Blob([csvContent], { type: 'text/csv;charset=utf-8;' });
     const link = document.createElement('a');
-    const url = URL.createObjectURL(blob);
-    link.setAttribute('href', url);
-    link.setAttribute('download', `SEC_Library_Logs_${reportTitle}_${fromDate || 'ALL'}_to_${toDate || 'ALL'}.csv`);
+    link.setAttribute('href', DBService.getReportExportUrl({ from: fromDate, to: toDate, department: selectedDept, userType: selectedUserType, search }));
     link.style.visibility = 'hidden';
     document.body.appendChild(link);
     link.click();
@@ -153,11 +162,11 @@ const Reports: React.FC<ReportsProps> = ({ entries }) => {
           <div className="flex gap-3">
             <div className="bg-blue-50 px-4 py-2 rounded-lg border border-blue-100 flex flex-col justify-center">
               <span className="text-[9px] font-black text-blue-400 uppercase tracking-tighter">Total Results</span>
-              <span className="text-lg font-black text-[#1e3a8a] leading-none">{filteredEntries.length}</span>
+              <span className="text-lg font-black text-[#1e3a8a] leading-none">{total.toLocaleString()}{totalCapped ? '+' : ''}</span>
             </div>
             <button
               onClick={exportToCSV}
-              disabled={filteredEntries.length === 0}
+              disabled={total === 0}
               className="bg-[#1e3a8a] hover:bg-blue-800 disabled:bg-slate-300 disabled:cursor-not-allowed text-white px-6 py-2.5 rounded-lg flex items-center gap-2 font-bold transition-all shadow-md active:scale-95"
             >
               <svg className="w-5 h-5" fill="none" stroke="currentColor" viewBox="0 0 24 24">
@@ -198,7 +207,7 @@ const Reports: React.FC<ReportsProps> = ({ entries }) => {
           <div className="flex gap-2">
             <div className="flex-grow">
               <label className="block text-[10px] font-black text-slate-400 uppercase mb-2 tracking-widest">Search</label>
-              <input type="text" placeholder="Name/Reg No..." value={filterSearch} onChange={(e) => setFilterSearch(e.target.value)} className="w-full border-2 border-slate-200 rounded-lg p-2 text-sm font-semibold outline-none focus:border-[#1e3a8a] transition-all bg-white" />
+              <input type="text" placeholder="Name/Reg No starts with..." value={filterSearch} onChange={(e) => setFilterSearch(e.target.value)} className="w-full border-2 border-slate-200 rounded-lg p-2 text-sm font-semibold outline-none focus:border-[#1e3a8a] transition-all bg-white" />
             </div>
             <div className="flex flex-col justify-end">
               <button onClick={clearFilters} className="h-[42px] px-4 bg-slate-200 hover:bg-slate-300 text-slate-600 rounded-lg font-bold text-xs uppercase tracking-wider transition-colors" title="Clear All Filters">
@@ -280,7 +289,7 @@ const Reports: React.FC<ReportsProps> = ({ entries }) => {
                 </tr>
               </thead>
               <tbody className="divide-y divide-slate-100">
-                {filteredEntries.map(e => (
+                {entries.map(e => (
                   <tr key={e.id} className="hover:bg-slate-50 transition-colors">
                     <td className="px-6 py-4 font-black text-[#1e3a8a] font-mono">{e.regNo}</td>
                     <td className="px-6 py-4 font-bold text-slate-700">{e.name}</td>
@@ -304,16 +313,27 @@ const Reports: React.FC<ReportsProps> = ({ entries }) => {
                     </td>
                   </tr>
                 ))}
-                {filteredEntries.length === 0 && (
+                {entries.length === 0 && !isLoading && (
                   <tr>
                     <td colSpan={6} className="px-6 py-20 text-center text-slate-400 italic">
-                      No records found. If you have data, try clearing the date filters.
+                      {error || 'No records found. If you have data, try clearing the date filters.'}
                     </td>
                   </tr>
                 )}
               </tbody>
             </table>
           </div>
+          {next && (
+            <div className="flex justify-center mt-4">
+              <button
+                onClick={loadMore}
+                disabled={isLoading}
+                className="bg-white hover:bg-slate-50 text-[#1e3a8a] border border-slate-200 px-6 py-2 rounded-lg text-xs font-black uppercase tracking-widest transition-all active:scale-95 disabled:opacity-50"
+              >
+                {isLoading ? 'Loading...' : `Load more (${entries.length} of ${total.toLocaleString()}${totalCapped ? '+' : ''})`}
+              </button>
+            </div>
+          )}
         </div>
       </div>
     </div>
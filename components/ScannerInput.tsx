@@ -97,31 +97,11 @@ const ScannerInput: React.FC<ScannerInputProps> = ({ onEntryProcessed }) => {
 
 
     try {
-      // Direct lookup from MySQL Master Tables
-      const profile: UserProfile | undefined = await DBService.lookupUserFromMaster(regNo);
-
-      let finalProfile: Omit<UserProfile, 'regNo'>;
-
-      if (!profile) {
-        // UNKNOWN USER LOGIC
-        finalProfile = {
-          name: null as any, // Cast to any to bypass strict type for now (or update type def)
-          department: null as any,
-          userType: 'UNKNOWN'
-        };
-
-        setTimedStatus({
-          msg: `UNKNOWN ID ${regNo}`,
-          details: 'User logged. Register in "Unknown Entries" tab.',
-          type: 'info' // Use Info or a warning color logic
-        });
-      } else {
-        finalProfile = profile;
-      }
-
-      // Add log entry to MySQL log_entry table
-      const entry = await DBService.addEntry(regNo, finalProfile);
-      const entryType = entry.checkOutTime ? 'OUT' : 'IN';
+      // Lookup + toggle against MySQL in one request
+      const { entry, direction: entryType, userType } = await DBService.scan(regNo);
+      const profile: UserProfile | undefined = userType === 'UNKNOWN'
+        ? undefined
+        : { regNo, name: entry.name, department: entry.department, userType };
 
       playFeedbackSound(entryType);
 
@@ -1,4 +1,4 @@
-import React, { useState, useMemo } from 'react';
+import React, { useState, useEffect, useMemo } from 'react';
 import {
   BarChart,
   Bar,
@@ -14,13 +14,10 @@ import {
   Cell,
   Legend
 } from 'recharts';
-import { Entry } from '../types';
+import { OccupancySeries, VisitStats } from '../types';
+import { DBService } from '../services/dbService';
 
-interface StatsOverviewProps {
-  entries: Entry[];
-}
-
-const StatsOverview: React.FC<StatsOverviewProps> = ({ entries }) => {
+const StatsOverview: React.FC = () => {
   
   // FIX: Get Local Date (YYYY-MM-DD) instead of UTC
   // This ensures the default filter is always "Today" in your timezone.
@@ -35,55 +32,60 @@ const StatsOverview: React.FC<StatsOverviewProps> = ({ entries }) => {
   const today = getTodayLocal();
   const [fromDate, setFromDate] = useState(today);
   const [toDate, setToDate] = useState(today);
+  const [stats, setStats] = useState<VisitStats | null>(null);
+  const [series, setSeries] = useState<OccupancySeries | null>(null);
+  const [error, setError] = useState<string | null>(null);
+
+  /**
+   * ✅ AGGREGATES FROM GET /api/stats (computed server-side from the daily rollups)
+   */
+  useEffect(() => {
+    if (!fromDate || !toDate || toDate < fromDate) return;
+    let cancelled = false;
+    DBService.getStats(fromDate, toDate)
+      .then(s => { if (!cancelled) { setStats(s); setError(null); } })
+      .catch(err => { if (!cancelled) setError(err.message || 'Could not load statistics.'); });
+    return () => { cancelled = true; };
+  }, [fromDate, toDate]);
 
   /**
-   * ✅ FILTER BY DATE (USING checkInTime)
+   * ✅ OCCUPANCY OVER THE DAY (per-minute samples; single-day ranges only)
    */
-  const filteredData = useMemo(() => {
-    return entries.filter(e => {
-      // Safety check for missing timestamps
-      if (!e.checkInTime) return false;
-      
-      const date = e.checkInTime.split('T')[0]; // YYYY-MM-DD
-      return date >= fromDate && date <= toDate;
-    });
-  }, [entries, fromDate, toDate]);
+  useEffect(() => {
+    setSeries(null);
+    if (!fromDate || fromDate !== toDate) return;
+    let cancelled = false;
+    const [y, m, d] = fromDate.split('-').map(Number);
+    const next = new Date(y, m - 1, d + 1);
+    const nextDay = `${next.getFullYear()}-${String(next.getMonth() + 1).padStart(2, '0')}-${String(next.getDate()).padStart(2, '0')}`;
+    DBService.getOccupancySeries(`${fromDate}T00:00:00`, `${nextDay}T00:00:00`)
+      .then(s => { if (!cancelled) setSeries(s); })
+      .catch(() => { if (!cancelled) setSeries(null); });
+    return () => { cancelled = true; };
+  }, [fromDate, toDate]);
 
   /**
    * ✅ BASIC STATS
    */
-  const totalVisits = filteredData.length;
-  const uniqueUsers = new Set(filteredData.map(e => e.regNo)).size;
+  const totalVisits = stats?.totalVisits ?? 0;
+  const uniqueUsers = stats?.uniqueUsers ?? 0;
 
   /**
    * ✅ STUDENT / STAFF SPLIT
    */
-  const userTypeData = useMemo(() => {
-    const counts = { STUDENT: 0, STAFF: 0 };
-    filteredData.forEach(e => {
-      if (e.userType === 'STUDENT') counts.STUDENT++;
-      if (e.userType === 'STAFF') counts.STAFF++;
-    });
-    return [
-      { name: 'Student', value: counts.STUDENT },
-      { name: 'Staff', value: counts.STAFF }
-    ];
-  }, [filteredData]);
+  const userTypeData = useMemo(() => [
+    { name: 'Student', value: stats?.byUserType.STUDENT ?? 0 },
+    { name: 'Staff', value: stats?.byUserType.STAFF ?? 0 }
+  ], [stats]);
 
   /**
-   * ✅ DEPARTMENT DISTRIBUTION
+   * ✅ DEPARTMENT DISTRIBUTION (server returns largest first)
    */
   const deptData = useMemo(() => {
-    const counts: Record<string, number> = {};
-    filteredData.forEach(e => {
-      const dept = e.department || 'Unknown'; // Handle missing departments
-      counts[dept] = (counts[dept] || 0) + 1;
-    });
-    return Object.entries(counts)
-      .map(([name, value]) => ({ name, value }))
-      .sort((a, b) => b.value - a.value)
+    return Object.entries(stats?.byDepartment ?? {})
+      .map(([name, value]) => ({ name: name || 'Unknown', value }))
       .slice(0, 10); // Limit to top 10 to prevent overcrowding
-  }, [filteredData]);
+  }, [stats]);
 
   /**
    * ✅ HOURLY USAGE
@@ -96,22 +98,21 @@ const StatsOverview: React.FC<StatsOverviewProps> = ({ entries }) => {
         i < 12 ? `${i} AM` :
         i === 12 ? '12 PM' :
         `${i - 12} PM`,
-      count: 0
+      count: stats?.hourly[i] ?? 0
     }));
 
-    filteredData.forEach(e => {
-      if (e.checkInTime) {
-        // new Date() parses the string in Local Time by default (if no 'Z' suffix)
-        // This correctly aligns with the user's perception of time
-        const hour = new Date(e.checkInTime).getHours();
-        if (hours[hour]) hours[hour].count++;
-      }
-    });
-
     // Filter to show meaningful hours (e.g., 7 AM to 9 PM)
     // You can adjust this range or remove the filter to show 24h
     return hours.filter(h => h.hour >= 7 && h.hour <= 21);
-  }, [filteredData]);
+  }, [stats]);
+
+  const occupancyData = useMemo(() => {
+    if (!series) return [];
+    return series.time.map((t, i) => ({
+      label: new Date(t).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' }),
+      occupancy: series.occupancy[i]
+    }));
+  }, [series]);
 
   const TYPE_COLORS = ['#1e3a8a', '#8b5cf6'];
 
@@ -144,6 +145,10 @@ const StatsOverview: React.FC<StatsOverviewProps> = ({ entries }) => {
         </div>
       </div>
 
+      {error && (
+        <div className="bg-red-50 text-red-600 border border-red-100 rounded-xl p-4 text-sm font-bold">{error}</div>
+      )}
+
       {/* SUMMARY CARDS */}
       <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-4 gap-6">
         {[
@@ -225,6 +230,45 @@ const StatsOverview: React.FC<StatsOverviewProps> = ({ entries }) => {
         </div>
       </div>
 
+      {/* OCCUPANCY OVER THE DAY */}
+      {series && (
+        <div className="bg-white p-6 rounded-2xl border shadow-sm">
+          <h3 className="text-sm font-black uppercase mb-6 text-slate-700">
+            Occupancy Over the Day{series.peakTime && ` (peak ${series.peak} at ${new Date(series.peakTime).toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' })})`}
+          </h3>
+          <ResponsiveContainer width="100%" height={250}>
+            <AreaChart data={occupancyData}>
+              <CartesianGrid strokeDasharray="3 3" vertical={false} stroke="#f1f5f9" />
+              <XAxis 
+                dataKey="label" 
+                tick={{fontSize: 10, fill: '#94a3b8'}} 
+                axisLine={false}
+                tickLine={false}
+                minTickGap={40}
+              />
+              <YAxis 
+                tick={{fontSize: 10, fill: '#94a3b8'}} 
+                axisLine={false}
+                tickLine={false}
+                allowDecimals={false}
+              />
+              <Tooltip 
+                 contentStyle={{ borderRadius: '8px', border: 'none', boxShadow: '0 10px 15px -3px rgb(0 0 0 / 0.1)' }}
+              />
+              <Area 
+                type="stepAfter" 
+                dataKey="occupancy" 
+                stroke="#8b5cf6" 
+                strokeWidth={2}
+                fill="#8b5cf6" 
+                fillOpacity={0.1}
+                isAnimationActive={false}
+              />
+            </AreaChart>
+          </ResponsiveContainer>
+        </div>
+      )}
+
       {/* DEPARTMENT BAR */}
       <div className="bg-white p-6 rounded-2xl border shadow-sm">
         <h3 className="text-sm font-black uppercase mb-6 text-slate-700">Top Departments (Visits)</h3>
@@ -1,22 +1,31 @@
 
-import React, { useState, useMemo } from 'react';
+import React, { useState, useMemo, useCallback } from 'react';
 import { Entry, UserProfile } from '../types';
 import { DBService } from '../services/dbService';
 
 interface UnknownEntriesProps {
-    entries: Entry[];
     onRefresh: () => void;
 }
 
-const UnknownEntries: React.FC<UnknownEntriesProps> = ({ entries, onRefresh }) => {
+const UnknownEntries: React.FC<UnknownEntriesProps> = ({ onRefresh }) => {
     const [selectedReg, setSelectedReg] = useState<string | null>(null);
     const [formData, setFormData] = useState({ name: '', department: '', userType: 'STUDENT' });
     const [isSubmitting, setIsSubmitting] = useState(false);
+    const [unknownEntries, setUnknownEntries] = useState<Entry[]>([]);
 
-    // Filter only Unknown entries (or where name is null)
-    const unknownEntries: Entry[] = useMemo(() => {
-        return entries.filter(e => e.userType === 'UNKNOWN' || !e.name);
-    }, [entries]);
+    // Only the unknown scans (type UNKNOWN or no name), filtered server-side
+    const loadUnknown = useCallback(async () => {
+        try {
+            setUnknownEntries(await DBService.getAllEntries({ unknown: true }));
+        } catch (err) {
+            console.error("Failed to load unknown entries", err);
+        }
+    }, []);
+
+    const refresh = useCallback(async () => {
+        await loadUnknown();
+        onRefresh();
+    }, [loadUnknown, onRefresh]);
 
     // Group by RegNo to show unique "Users" to register
     const uniqueUnknowns = useMemo(() => {
@@ -51,7 +60,7 @@ const UnknownEntries: React.FC<UnknownEntriesProps> = ({ entries, onRefresh }) =
             // Reset and Refresh
             setSelectedReg(null);
             setFormData({ name: '', department: '', userType: 'STUDENT' });
-            onRefresh();
+            refresh();
         } catch (err) {
             alert("Failed to register user. Check console.");
             console.error(err);
@@ -60,7 +69,7 @@ const UnknownEntries: React.FC<UnknownEntriesProps> = ({ entries, onRefresh }) =
         }
     };
 
-    // Auto-sync on mount
+    // Auto-sync on mount, then list whatever is still unknown
     React.useEffect(() => {
         const sync = async () => {
             try {
@@ -69,6 +78,7 @@ const UnknownEntries: React.FC<UnknownEntriesProps> = ({ entries, onRefresh }) =
                     onRefresh();
                 }
             } catch (e) { console.error("Sync failed", e); }
+            loadUnknown();
         };
         sync();
     }, []);
@@ -88,7 +98,7 @@ const UnknownEntries: React.FC<UnknownEntriesProps> = ({ entries, onRefresh }) =
                             const res = await DBService.syncUnknownEntryLogs();
                             if (res.resolvedCount > 0) {
                                 alert(`Resolved ${res.resolvedCount} entries found in database.`);
-                                onRefresh();
+                                refresh();
                             } else {
                                 alert("No matching records found in database.");
                             }
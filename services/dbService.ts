@@ -1,5 +1,5 @@
 
-import { Entry, UserProfile, UserType } from '../types';
+import { Entry, Occupancy, OccupancySeries, ScanResult, UserProfile, UserType, VisitStats } from '../types';
 
 /**
  * SPRING BOOT API CONFIGURATION
@@ -72,6 +72,14 @@ export class DBService {
     });
   }
 
+  static async importMasterCsv(csv: string): Promise<{ rows: number; students: number; staff: number; errorCount: number; errors: { line: number; regNo: string; message: string }[] }> {
+    return this.request('/master/import', {
+      method: 'POST',
+      headers: { 'Content-Type': 'text/csv' },
+      body: csv,
+    });
+  }
+
   static async lookupUserFromMaster(regNo: string): Promise<UserProfile | undefined> {
     return this.request<UserProfile | undefined>(`/lookup/${regNo}`);
   }
@@ -83,8 +91,70 @@ export class DBService {
     });
   }
 
-  static async getEntries(): Promise<Entry[]> {
-    return this.request<Entry[]>('/log_entry');
+  // Newest first; pass `next` from the previous page as `after`
+  static async getEntryPage(params: Record<string, string | number | boolean | undefined> = {}): Promise<{ entries: Entry[]; next: string | null }> {
+    const query = new URLSearchParams();
+    Object.entries(params).forEach(([k, v]) => { if (v !== undefined && v !== '') query.set(k, String(v)); });
+    return this.request(`/log_entry/page?${query}`);
+  }
+
+  // Rows checked in, checked out or resolved after `since`; call without `since` for a starting cursor
+  static async getEntryChanges(since?: number): Promise<{ entries: Entry[]; cursor: number; hasMore: boolean }> {
+    const query = since === undefined ? '' : `?since=${since}`;
+    return this.request(`/log_entry/changes${query}`);
+  }
+
+  // Every page of a narrow listing (open sessions, unknown scans); not for the full history
+  static async getAllEntries(params: Record<string, string | number | boolean | undefined> = {}): Promise<Entry[]> {
+    const all: Entry[] = [];
+    let after: string | undefined;
+    do {
+      const page = await this.getEntryPage({ ...params, after, limit: 1000 });
+      all.push(...page.entries);
+      after = page.next ?? undefined;
+    } while (after);
+    return all;
+  }
+
+  // Server-side report filtering; `total` is returned on the first page only (a lower bound when `totalCapped`)
+  static async getReportEntries(params: Record<string, string | number | boolean | undefined> = {}): Promise<{ entries: Entry[]; next: string | null; total: number | null; totalCapped: boolean | null }> {
+    const query = new URLSearchParams();
+    Object.entries(params).forEach(([k, v]) => { if (v !== undefined && v !== '' && v !== 'ALL') query.set(k, String(v)); });
+    return this.request(`/reports/entries?${query}`);
+  }
+
+  // Streamed by the server; open in the browser to download
+  static getReportExportUrl(params: Record<string, string | undefined> = {}): string {
+    const query = new URLSearchParams();
+    Object.entries(params).forEach(([k, v]) => { if (v !== undefined && v !== '' && v !== 'ALL') query.set(k, v); });
+    return `${API_BASE_URL}/reports/export.csv?${query}`;
+  }
+
+  // Department -> user type -> visits, for the same filters as getReportEntries
+  static async getReportSummary(params: Record<string, string | undefined> = {}): Promise<Record<string, Record<string, number>>> {
+    const query = new URLSearchParams();
+    Object.entries(params).forEach(([k, v]) => { if (v !== undefined && v !== '' && v !== 'ALL') query.set(k, v); });
+    return this.request(`/reports/summary?${query}`);
+  }
+
+  static async getReportDepartments(): Promise<string[]> {
+    return this.request<string[]>('/reports/departments');
+  }
+
+  static async getStats(from: string, to: string): Promise<VisitStats> {
+    return this.request<VisitStats>(`/stats?from=${from}&to=${to}`);
+  }
+
+  static async getOccupancy(): Promise<Occupancy> {
+    return this.request<Occupancy>('/occupancy');
+  }
+
+  static async getOccupancySeries(from?: string, to?: string): Promise<OccupancySeries> {
+    const params = new URLSearchParams();
+    if (from) params.set('from', from);
+    if (to) params.set('to', to);
+    const query = params.toString();
+    return this.request<OccupancySeries>(`/occupancy/series${query ? `?${query}` : ''}`);
   }
 
   static async addEntry(regNo: string, profile: Omit<UserProfile, 'regNo'>): Promise<Entry> {
@@ -94,6 +164,13 @@ export class DBService {
     });
   }
 
+  // Lookup + check-in/out in a single round trip
+  static async scan(regNo: string): Promise<ScanResult> {
+    return this.request<ScanResult>(`/scan/${encodeURIComponent(regNo)}`, {
+      method: 'POST',
+    });
+  }
+
   static async manualCheckout(entryId: string): Promise<Entry> {
     return this.request<Entry>(`/log_entry/${entryId}/checkout`, {
       method: 'PUT',
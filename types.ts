@@ -18,6 +18,40 @@ export interface UserProfile {
   userType: UserType;
 }
 
+export interface ScanResult {
+  entry: Entry;
+  direction: 'IN' | 'OUT';
+  userType: UserType;
+}
+
+export interface VisitStats {
+  from: string;
+  to: string;
+  totalVisits: number;
+  uniqueUsers: number;
+  byDepartment: Record<string, number>;
+  byUserType: Record<string, number>;
+  hourly: number[];
+}
+
+export interface Occupancy {
+  total: number;
+  byDepartment: Record<string, number>;
+  byUserType: Record<string, number>;
+  time: string;
+}
+
+export interface OccupancySeries {
+  from: string;
+  to: string;
+  time: string[];
+  occupancy: number[];
+  entries: number[];
+  exits: number[];
+  peakTime: string | null;
+  peak: number;
+}
+
 export enum AppTab {
   DASHBOARD = 'DASHBOARD',
   REPORTS = 'REPORTS',